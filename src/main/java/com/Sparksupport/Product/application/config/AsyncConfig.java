@@ -1,24 +1,132 @@
 package com.sparksupport.product.application.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    private static final int PDF_EXPORT_MAX_CONCURRENCY = 4;
+    private static final int PDF_EXPORT_QUEUE_CAPACITY = 100;
+    private static final int LIVE_FRAME_POOL_SIZE = 16;
+    private static final int CHANGE_FEED_POOL_SIZE = 16;
+    private static final int SINGLE_FLIGHT_MAX_CONCURRENCY = 4;
+
     @Bean(name = "pdfExportExecutor")
-    public Executor pdfExportExecutor() {
+    public Executor pdfExportExecutor(Environment environment) {
+        // Capped so exports cannot hog DB connections; a job arriving with the queue full is rejected
+        // (TaskRejectedException) rather than blocking the request thread. Virtual-thread mode
+        // (spring.threads.virtual.enabled=true) keeps the same pool and queue, only on virtual threads,
+        // since a concurrency-limited SimpleAsyncTaskExecutor throttles by blocking the caller
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(100);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(Thread.ofVirtual().name("PdfExport-", 1).factory());
+            executor.setCorePoolSize(PDF_EXPORT_MAX_CONCURRENCY);
+        } else {
+            executor.setCorePoolSize(2);
+        }
+        executor.setMaxPoolSize(PDF_EXPORT_MAX_CONCURRENCY);
+        executor.setQueueCapacity(PDF_EXPORT_QUEUE_CAPACITY);
         executor.setThreadNamePrefix("PdfExport-");
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "pdfLayoutPool", destroyMethod = "shutdown")
+    public ForkJoinPool pdfLayoutPool(@Value("${app.pdf.layout-parallelism:0}") int parallelism) {
+        // PDF row measurement and wrapping is pure CPU work, shared by all export jobs and sized to the cores;
+        // virtual threads would not add capacity here
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("PdfLayout-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @Bean(name = "liveFrameExecutor")
+    public Executor liveFrameExecutor(Environment environment) {
+        // Frame writes block on each client's socket; virtual threads make that blocking cheap
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("LiveFrame-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        // No queue: a frame that finds every thread busy is skipped and coalesced into the next one
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(LIVE_FRAME_POOL_SIZE);
+        executor.setMaxPoolSize(LIVE_FRAME_POOL_SIZE);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("LiveFrame-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "changeFeedExecutor")
+    public Executor changeFeedExecutor(Environment environment) {
+        // Change feed sends block on each client's socket like live frames
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ChangeFeed-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        // No queue: a subscriber that finds every thread busy is sent to on the next poll
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(CHANGE_FEED_POOL_SIZE);
+        executor.setMaxPoolSize(CHANGE_FEED_POOL_SIZE);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ChangeFeed-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "singleFlightExecutor")
+    public Executor singleFlightExecutor(Environment environment) {
+        // Background stale-while-revalidate refreshes; at most one per distinct call is in flight
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("SingleFlight-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(SINGLE_FLIGHT_MAX_CONCURRENCY);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(SINGLE_FLIGHT_MAX_CONCURRENCY);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("SingleFlight-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "searchIndexExecutor")
+    public Executor searchIndexExecutor(Environment environment) {
+        // Search index reloads and compactions; the index coalesces requests, so one thread suffices
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("SearchIndex-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(1);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("SearchIndex-");
+        executor.initialize();
+        return executor;
+    }
 }
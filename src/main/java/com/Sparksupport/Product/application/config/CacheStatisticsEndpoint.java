@@ -0,0 +1,56 @@
+package com.sparksupport.product.application.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/cachestats - hit/miss/put counts and hit ratio per second-level cache region.
+ * Counters are only collected when hibernate.generate_statistics=true.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatisticsEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics == null) {
+                continue;
+            }
+
+            long hits = regionStatistics.getHitCount();
+            long misses = regionStatistics.getMissCount();
+            Map<String, Object> region = new LinkedHashMap<>();
+            region.put("hits", hits);
+            region.put("misses", misses);
+            region.put("puts", regionStatistics.getPutCount());
+            region.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            regions.put(regionName, region);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        response.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        response.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        response.put("regions", regions);
+        return response;
+    }
+}
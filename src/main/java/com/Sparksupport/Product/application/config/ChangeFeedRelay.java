@@ -0,0 +1,241 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.dto.ChangeEventDto;
+import com.sparksupport.product.application.model.OutboxEvent;
+import com.sparksupport.product.application.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays outbox rows to change-feed subscribers over Server-Sent Events.
+ * <p>
+ * Each poll stamps newly committed rows with the next sequence numbers and pushes them to every
+ * subscriber. The sequence is the SSE event id, so a client that reconnects with Last-Event-ID
+ * resumes exactly where it stopped: recent events come from an in-memory window, older ones from
+ * the outbox table until retention removes them. Sequences are assigned by one relay, so run a
+ * single instance with the relay enabled (app.outbox.relay.enabled); the others serve no feed.
+ * <p>
+ * Sends run on the changeFeedExecutor, never on the scheduler, so a slow client delays neither
+ * the relay nor the other subscribers. A subscriber still writing after maxLaggingPolls polls is
+ * dropped and may reconnect with its Last-Event-ID.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChangeFeedRelay {
+
+    private static final int RELAY_BATCH = 500;
+    private static final int CATCH_UP_PAGE = 500;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor sendExecutor;
+    private final int windowSize;
+    private final int maxLaggingPolls;
+    private final long emitterTimeoutMillis;
+    private final Duration retention;
+
+    private final Deque<ChangeEventDto> recent = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Highest sequence assigned so far; -1 until read from the primary on the first poll
+    private volatile long lastSeq = -1;
+
+    public ChangeFeedRelay(OutboxEventRepository outboxEventRepository, PlatformTransactionManager transactionManager,
+                           @Qualifier("changeFeedExecutor") Executor sendExecutor,
+                           @Value("${app.outbox.window-size:10000}") int windowSize,
+                           @Value("${app.outbox.max-lagging-polls:40}") int maxLaggingPolls,
+                           @Value("${app.outbox.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                           @Value("${app.outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sendExecutor = sendExecutor;
+        this.windowSize = windowSize;
+        this.maxLaggingPolls = maxLaggingPolls;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Open a change stream delivering events after the given sequence, or only new events when
+     * afterSeq is null.
+     */
+    public SseEmitter subscribe(Long afterSeq) {
+        if (afterSeq != null && afterSeq < 0) {
+            throw new IllegalArgumentException("Change feed offset must be >= 0");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, afterSeq != null ? afterSeq : currentSeq());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    private long currentSeq() {
+        long seq = lastSeq;
+        return seq >= 0 ? seq : outboxEventRepository.findMaxSeq();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:250}")
+    public void relay() {
+        try {
+            List<ChangeEventDto> batch;
+            do {
+                batch = assignSequences();
+                remember(batch);
+            } while (batch.size() == RELAY_BATCH);
+        } catch (RuntimeException e) {
+            // Re-read the high-water mark in case another relay assigned sequences concurrently
+            lastSeq = -1;
+            log.error("Outbox relay failed", e);
+            return;
+        }
+        subscribers.forEach(this::dispatch);
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void applyRetention() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> outboxEventRepository.deleteRelayedBefore(cutoff));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} relayed outbox events older than {}", purged, cutoff);
+        }
+    }
+
+    private List<ChangeEventDto> assignSequences() {
+        List<ChangeEventDto> assigned = transactionTemplate.execute(status -> {
+            long seq = lastSeq >= 0 ? lastSeq : outboxEventRepository.findMaxSeq();
+            List<OutboxEvent> pending = outboxEventRepository.findBySeqIsNullOrderByIdAsc(PageRequest.of(0, RELAY_BATCH));
+            List<ChangeEventDto> events = new ArrayList<>(pending.size());
+            for (OutboxEvent event : pending) {
+                event.setSeq(++seq);
+                events.add(ChangeEventDto.from(event));
+            }
+            if (events.isEmpty()) {
+                lastSeq = seq;
+            }
+            return events;
+        });
+        if (!assigned.isEmpty()) {
+            lastSeq = assigned.get(assigned.size() - 1).seq();
+        }
+        return assigned;
+    }
+
+    private void remember(List<ChangeEventDto> batch) {
+        synchronized (recent) {
+            for (ChangeEventDto event : batch) {
+                recent.addLast(event);
+                if (recent.size() > windowSize) {
+                    recent.removeFirst();
+                }
+            }
+        }
+    }
+
+    private void dispatch(Subscriber subscriber) {
+        if (!subscriber.inFlight.compareAndSet(false, true)) {
+            if (++subscriber.laggingPolls > maxLaggingPolls) {
+                log.warn("Dropping change feed subscriber at seq {} that fell {} polls behind",
+                        subscriber.cursor, subscriber.laggingPolls);
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> deliver(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Every sender is busy: the cursor has not moved, so the next poll sends the same events
+            subscriber.inFlight.set(false);
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            List<ChangeEventDto> events = subscriber.cursor < lastSeq ? eventsAfter(subscriber.cursor) : List.of();
+            for (ChangeEventDto event : events) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.seq()))
+                        .name(event.eventType())
+                        .data(event, MediaType.APPLICATION_JSON));
+                subscriber.cursor = event.seq();
+            }
+            long now = System.currentTimeMillis();
+            if (!events.isEmpty()) {
+                subscriber.lastSentAt = now;
+            } else if (now - subscriber.lastSentAt >= HEARTBEAT_MILLIS) {
+                // Keeps proxies from closing an idle stream and detects clients that went away
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                subscriber.lastSentAt = now;
+            }
+            subscriber.laggingPolls = 0;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.inFlight.set(false);
+        }
+    }
+
+    // Served from memory when the window still covers the cursor, otherwise one page from the outbox table
+    private List<ChangeEventDto> eventsAfter(long cursor) {
+        synchronized (recent) {
+            if (!recent.isEmpty() && recent.peekFirst().seq() <= cursor + 1) {
+                List<ChangeEventDto> events = new ArrayList<>();
+                Iterator<ChangeEventDto> newestFirst = recent.descendingIterator();
+                while (newestFirst.hasNext()) {
+                    ChangeEventDto event = newestFirst.next();
+                    if (event.seq() <= cursor) {
+                        break;
+                    }
+                    events.add(event);
+                }
+                Collections.reverse(events);
+                return events;
+            }
+        }
+        return outboxEventRepository.findBySeqGreaterThanOrderBySeqAsc(cursor, PageRequest.of(0, CATCH_UP_PAGE))
+                .stream()
+                .map(ChangeEventDto::from)
+                .toList();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private volatile long cursor;
+        private volatile long lastSentAt = System.currentTimeMillis();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        private volatile int laggingPolls;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
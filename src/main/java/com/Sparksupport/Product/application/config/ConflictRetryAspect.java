@@ -0,0 +1,40 @@
+package com.sparksupport.product.application.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Applies {@link ConflictRetryPolicy} to {@link RetryOnConflict} methods. Ordered just outside
+ * the transaction interceptor, so every attempt runs in a fresh transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+    private final ConflictRetryPolicy conflictRetryPolicy;
+
+    public ConflictRetryAspect(ConflictRetryPolicy conflictRetryPolicy) {
+        this.conflictRetryPolicy = conflictRetryPolicy;
+    }
+
+    @Around("@annotation(com.sparksupport.product.application.config.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        return conflictRetryPolicy.execute(operation, () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.sparksupport.product.application.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry with jittered exponential backoff for transactions that fail on a version
+ * conflict. Each attempt must start its own transaction: inside an existing one the failed
+ * persistence context cannot be reused, so the call runs once and the outermost caller retries.
+ * Conflicts, retries and exhausted attempts are counted per operation.
+ */
+@Component
+@Slf4j
+public class ConflictRetryPolicy {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryPolicy(MeterRegistry meterRegistry,
+                               @Value("${app.retry.conflict.max-attempts:5}") int maxAttempts,
+                               @Value("${app.retry.conflict.base-backoff-ms:10}") long baseBackoffMillis,
+                               @Value("${app.retry.conflict.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                counter("inventory.update.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("inventory.update.retries.exhausted", operation).increment();
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                counter("inventory.update.retries", operation).increment();
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    // Full jitter: a random pause up to the exponential bound, so colliding writers spread out
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long bound = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name).tag("operation", operation).register(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.sparksupport.product.application.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes escape hatch: read-only work executed through {@link #onPrimary(Supplier)}
+ * is served by the primary even when a healthy replica is configured.
+ */
+public final class DataSourceRoutingContext {
+
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private DataSourceRoutingContext() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_DEPTH.get() > 0;
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        enterPrimary();
+        try {
+            return action.get();
+        } finally {
+            exitPrimary();
+        }
+    }
+
+    static void enterPrimary() {
+        PRIMARY_DEPTH.set(PRIMARY_DEPTH.get() + 1);
+    }
+
+    static void exitPrimary() {
+        int depth = PRIMARY_DEPTH.get() - 1;
+        if (depth <= 0) {
+            PRIMARY_DEPTH.remove();
+        } else {
+            PRIMARY_DEPTH.set(depth);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.model.InventoryCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Optional owner of product stock counts for sale traffic (app.inventory.engine.enabled=true).
+ * Counts are atomics per product, checked against reservation holds inside the
+ * {@link ReservationLedger} stripe for the product, so a sale is acknowledged from memory without
+ * taking the product row lock. A change made inside a transaction moves only the count in memory
+ * until the transaction commits; it is then appended to an {@link InventoryWriteBehindLog} and
+ * applied to product.quantity in batches, together with the checkpoints used for recovery. A
+ * rollback reverts the count, and a crash before the commit leaves nothing in the log to replay.
+ * <p>
+ * Product reads from
+ * the catalog see the database quantity, which trails the engine by up to one flush interval.
+ * Stock changes take a read lock striped by product; a database write that sets quantities
+ * directly ({@link #reloadAfter}) takes every stripe's write lock, so no change is lost between
+ * that write and the reload of the counts.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.engine.enabled", havingValue = "true")
+@Slf4j
+public class InventoryEngine implements SmartInitializingSingleton, DisposableBean {
+
+    private static final String LOAD_SQL = "SELECT quantity FROM product WHERE id = ?";
+    private static final String APPLY_SQL = "UPDATE product SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+    private static final String READ_CHECKPOINTS_SQL = "SELECT id, last_seq FROM inventory_checkpoint";
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT INTO inventory_checkpoint (id, last_seq) VALUES (?, 0)";
+    private static final String WRITE_CHECKPOINT_SQL = "UPDATE inventory_checkpoint SET last_seq = ? WHERE id = ?";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Integer, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] stockLocks = new ReadWriteLock[LOCK_STRIPES];
+    private final ReservationLedger reservationLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate loadTemplate;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final Path logDirectory;
+    private final int logShards;
+    private final int segmentRecords;
+    private final Object flushLock = new Object();
+    private volatile InventoryWriteBehindLog writeBehindLog;
+    // Bumped by reloadAfter while it holds every stripe, so a count read before a reload is not reused
+    private volatile long reloads;
+
+    public InventoryEngine(ReservationLedger reservationLedger, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, ProductCacheEvictor productCacheEvictor,
+                           @Value("${app.inventory.engine.log-dir:inventory-log}") String logDir,
+                           @Value("${app.inventory.engine.log-shards:16}") int logShards,
+                           @Value("${app.inventory.engine.segment-records:65536}") int segmentRecords) {
+        this.reservationLedger = reservationLedger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Counts are loaded in their own read-write transaction so they always come from the primary
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.productCacheEvictor = productCacheEvictor;
+        this.logDirectory = Path.of(logDir);
+        this.logShards = logShards;
+        this.segmentRecords = segmentRecords;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stockLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public int stock(int productId) {
+        return counter(productId).get();
+    }
+
+    // Live on-hand count for ReservationLedger#tryHold
+    public IntSupplier onHand(int productId) {
+        return counter(productId)::get;
+    }
+
+    /**
+     * The count in memory, or null when the product's count is not loaded; unlike {@link #stock}
+     * this never reads the database, so it is safe inside a transaction that created the product.
+     */
+    public Integer loadedStock(int productId) {
+        AtomicInteger counter = stock.get(productId);
+        return counter != null ? counter.get() : null;
+    }
+
+    /**
+     * Counts already in memory for products in the id range, without loading the others: a product
+     * not in memory has no unflushed changes, so product.quantity is its count.
+     */
+    public Map<Integer, Integer> loadedStock(long fromId, long toId) {
+        Map<Integer, Integer> loaded = new HashMap<>();
+        stock.forEach((productId, counter) -> {
+            if (productId >= fromId && productId <= toId) {
+                loaded.put(productId, counter.get());
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Takes {@code quantity} units if stock not held by reservations covers it.
+     */
+    public boolean trySell(int productId, int quantity) {
+        return change(productId, counter -> {
+            // The hold makes check-and-take atomic against reservations and other sales of the product
+            Object sale = new Object();
+            if (!reservationLedger.tryHold(sale, productId, quantity, counter::get)) {
+                return null;
+            }
+            try {
+                counter.addAndGet(-quantity);
+            } finally {
+                reservationLedger.release(sale);
+            }
+            return -quantity;
+        }) != null;
+    }
+
+    /**
+     * Takes stock the caller already holds in the reservation ledger, without checking it again.
+     */
+    public void consume(int productId, int quantity) {
+        add(productId, -quantity);
+    }
+
+    public void restock(int productId, int quantity) {
+        add(productId, quantity);
+    }
+
+    /**
+     * Sets the count to an absolute value (admin correction); the log records the difference.
+     */
+    public void adjustTo(int productId, int quantity) {
+        change(productId, counter -> quantity - counter.getAndSet(quantity));
+    }
+
+    /**
+     * Flushes pending deltas, runs a write that sets quantities directly in the database (bulk import),
+     * then drops in-memory counts so they are reloaded. Stock changes wait until the counts are
+     * dropped, so none is applied to a count the write has replaced; reads carry on meanwhile.
+     */
+    public void reloadAfter(Runnable databaseWrite) {
+        for (ReadWriteLock stockLock : stockLocks) {
+            stockLock.writeLock().lock();
+        }
+        try {
+            synchronized (flushLock) {
+                flush();
+                databaseWrite.run();
+                stock.clear();
+                reloads++;
+            }
+        } finally {
+            for (int i = stockLocks.length - 1; i >= 0; i--) {
+                stockLocks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies the deltas logged since the last flush to product.quantity in one transaction,
+     * in product id order so concurrent flushes and sales lock rows in a consistent order.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.engine.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            InventoryWriteBehindLog.Batch batch = writeBehindLog.drain();
+            if (!batch.needsCheckpoint()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> writeDeltas(batch.deltas(), batch.upToSeqs()));
+            } catch (RuntimeException e) {
+                log.error("Inventory write-behind flush up to seqs {} failed, will retry", batch.upToSeqs(), e);
+                writeBehindLog.requeue(batch);
+                return;
+            }
+            writeBehindLog.checkpointed(batch);
+            productCacheEvictor.evictProducts(batch.deltas().keySet());
+        }
+    }
+
+    /**
+     * Replays log records newer than their shard's database checkpoint before the application takes traffic.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.query(READ_CHECKPOINTS_SQL, (RowCallbackHandler)
+                row -> checkpoints.put(InventoryCheckpoint.shardOf(row.getInt("id")), row.getLong("last_seq"))));
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        Map<Integer, Long> recovered = new HashMap<>();
+        long[] records = new long[1];
+        try {
+            InventoryWriteBehindLog.read(logDirectory, record -> {
+                if (record.seq() > checkpoints.getOrDefault(record.shard(), 0L)) {
+                    deltas.merge(record.productId(), record.delta(), Integer::sum);
+                    recovered.merge(record.shard(), record.seq(), Math::max);
+                    records[0]++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory write-behind log in " + logDirectory, e);
+        }
+
+        long[] checkpointedSeqs = new long[logShards];
+        transactionTemplate.executeWithoutResult(tx -> {
+            // A row per shard in use, and per shard recovered from a log written with more shards
+            Set<Integer> shards = new TreeSet<>(recovered.keySet());
+            for (int shard = 0; shard < logShards; shard++) {
+                shards.add(shard);
+            }
+            List<Object[]> missing = new ArrayList<>();
+            for (int shard : shards) {
+                if (!checkpoints.containsKey(shard)) {
+                    missing.add(new Object[]{InventoryCheckpoint.idOf(shard)});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_CHECKPOINT_SQL, missing);
+            if (!recovered.isEmpty()) {
+                writeDeltas(deltas, recovered);
+            }
+        });
+        if (!recovered.isEmpty()) {
+            productCacheEvictor.evictProducts(deltas.keySet());
+        }
+        for (int shard = 0; shard < logShards; shard++) {
+            checkpointedSeqs[shard] = recovered.getOrDefault(shard, checkpoints.getOrDefault(shard, 0L));
+        }
+
+        writeBehindLog = new InventoryWriteBehindLog(logDirectory, checkpointedSeqs, segmentRecords);
+        log.info("Inventory engine recovered {} unflushed log records for {} products ({} log shards)",
+                records[0], deltas.size(), logShards);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flush();
+        writeBehindLog.close();
+    }
+
+    private void writeDeltas(Map<Integer, Integer> deltas, Map<Integer, Long> upToSeqs) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((productId, delta) -> {
+            if (delta != 0) {
+                args.add(new Object[]{delta, productId});
+            }
+        });
+        jdbcTemplate.batchUpdate(APPLY_SQL, args);
+        List<Object[]> checkpointArgs = new ArrayList<>(upToSeqs.size());
+        upToSeqs.forEach((shard, seq) -> checkpointArgs.add(new Object[]{seq, InventoryCheckpoint.idOf(shard)}));
+        jdbcTemplate.batchUpdate(WRITE_CHECKPOINT_SQL, checkpointArgs);
+    }
+
+    private void add(int productId, int delta) {
+        change(productId, counter -> {
+            counter.addAndGet(delta);
+            return delta;
+        });
+    }
+
+    /**
+     * Runs {@code update} on the product's count under its stripe lock and logs the delta it returns
+     * (null when it made no change) once the caller's transaction commits. The count is loaded before
+     * the lock is taken, and loaded again if a reload replaced it meanwhile.
+     */
+    private Integer change(int productId, Function<AtomicInteger, Integer> update) {
+        Lock lock = stockLock(productId);
+        while (true) {
+            long generation = reloads;
+            AtomicInteger counter = counter(productId);
+            Integer delta;
+            lock.lock();
+            try {
+                if (generation != reloads) {
+                    continue;
+                }
+                delta = update.apply(counter);
+            } finally {
+                lock.unlock();
+            }
+            if (delta != null && delta != 0) {
+                logOnCommit(productId, counter, generation, delta);
+            }
+            return delta;
+        }
+    }
+
+    /**
+     * Appends a change already made to the count once its transaction commits, or reverts the count
+     * if it rolls back. When a reload dropped the counts in between, the reloaded count came from the
+     * database without the change, so a commit applies it as a new change and a rollback has nothing to undo.
+     */
+    private void logOnCommit(int productId, AtomicInteger counter, long generation, int delta) {
+        ReservationLedger.afterCompletion(committed -> {
+            Lock lock = stockLock(productId);
+            lock.lock();
+            try {
+                if (generation == reloads) {
+                    if (committed) {
+                        writeBehindLog.append(productId, delta);
+                    } else {
+                        counter.addAndGet(-delta);
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (committed) {
+                add(productId, delta);
+            }
+        });
+    }
+
+    private Lock stockLock(int productId) {
+        return stockLocks[Math.floorMod(productId, LOCK_STRIPES)].readLock();
+    }
+
+    /**
+     * The product's count, loaded from the database outside any lock when it is not in memory yet. A
+     * product with no row gets a count of 0 that is not kept, so it is read again once the row exists.
+     */
+    private AtomicInteger counter(int productId) {
+        AtomicInteger counter = stock.get(productId);
+        while (counter == null) {
+            long generation = reloads;
+            List<Integer> rows = loadTemplate.execute(tx -> jdbcTemplate.queryForList(LOAD_SQL, Integer.class, productId));
+            if (rows.isEmpty()) {
+                return new AtomicInteger();
+            }
+            Lock lock = stockLock(productId);
+            lock.lock();
+            try {
+                // A count loaded before a reload may predate the reloaded quantity; load it again
+                if (generation == reloads) {
+                    AtomicInteger loaded = new AtomicInteger(rows.get(0));
+                    AtomicInteger existing = stock.putIfAbsent(productId, loaded);
+                    counter = existing != null ? existing : loaded;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,340 @@
+package com.sparksupport.product.application.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Ordered log of stock deltas taken by the {@link InventoryEngine} that have not reached MySQL yet.
+ * <p>
+ * The log is split into shards by product id, so sales of different products append without
+ * contending. Each shard numbers its own records and writes them into fixed-size memory-mapped
+ * segment files: an append is a memory write the OS keeps if the process dies, and a drain forces
+ * everything appended since the previous drain to disk at once (group commit), so an OS crash
+ * loses at most the deltas of one flush interval. Each shard has its own checkpoint, and segments
+ * whose records are all checkpointed are deleted, so the files hold little more than the
+ * unflushed tail. Deltas are also summed per product in memory, which is what the engine writes
+ * to the database.
+ */
+class InventoryWriteBehindLog implements Closeable {
+
+    // seq (8) + productId (4) + delta (4) + crc32 (4)
+    static final int RECORD_SIZE = 20;
+
+    private static final String SHARD_PREFIX = "shard-";
+    private static final String SUFFIX = ".seg";
+    // Single-file log written before the log was sharded, recovered as shard 0
+    private static final String LEGACY_FILE = "inventory.log";
+    private static final int READ_BUFFER_RECORDS = 4096;
+
+    private final Shard[] shards;
+
+    /**
+     * Opens an empty log with one shard per entry of {@code checkpointedSeqs}, each numbering its
+     * records after its checkpoint. Files already in {@code directory} must have been recovered
+     * (see {@link #read}), as they are deleted.
+     */
+    InventoryWriteBehindLog(Path directory, long[] checkpointedSeqs, int segmentRecords) {
+        try {
+            Files.createDirectories(directory);
+            deleteLogFiles(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open inventory write-behind log in " + directory, e);
+        }
+        this.shards = new Shard[checkpointedSeqs.length];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(directory.resolve(SHARD_PREFIX + i), segmentRecords, checkpointedSeqs[i]);
+        }
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    int shardOf(int productId) {
+        return Math.floorMod(productId, shards.length);
+    }
+
+    /**
+     * Appends a delta to the product's shard and returns its sequence number within the shard.
+     */
+    long append(int productId, int delta) {
+        return shards[shardOf(productId)].append(productId, delta);
+    }
+
+    /**
+     * Forces appended records to disk and hands over the deltas accumulated since the last drain.
+     */
+    Batch drain() {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        Map<Integer, Long> upToSeqs = new HashMap<>();
+        for (int i = 0; i < shards.length; i++) {
+            long upToSeq = shards[i].drainInto(deltas);
+            if (upToSeq >= 0) {
+                upToSeqs.put(i, upToSeq);
+            }
+        }
+        return new Batch(deltas, upToSeqs);
+    }
+
+    /**
+     * Puts the deltas of a batch that failed to reach the database back in front of newer ones.
+     */
+    void requeue(Batch batch) {
+        batch.deltas().forEach((productId, delta) -> shards[shardOf(productId)].requeue(productId, delta));
+    }
+
+    /**
+     * Records that the batch is in the database and deletes the segments it made redundant.
+     */
+    void checkpointed(Batch batch) {
+        batch.upToSeqs().forEach((shard, seq) -> shards[shard].checkpointed(seq));
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Streams the records of the logs in {@code directory} to {@code consumer}, shard by shard in
+     * sequence order, stopping a shard at its first torn or corrupt record.
+     */
+    static void read(Path directory, Consumer<Record> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Map<Integer, List<Path>> filesByShard = new TreeMap<>();
+        Path legacy = directory.resolve(LEGACY_FILE);
+        if (Files.exists(legacy)) {
+            filesByShard.computeIfAbsent(0, shard -> new ArrayList<>()).add(legacy);
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path shardDirectory : entries.filter(InventoryWriteBehindLog::isShardDirectory).toList()) {
+                int shard = Integer.parseInt(shardDirectory.getFileName().toString().substring(SHARD_PREFIX.length()));
+                filesByShard.computeIfAbsent(shard, s -> new ArrayList<>()).addAll(segmentFiles(shardDirectory).values());
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_RECORDS * RECORD_SIZE);
+        CRC32 checksum = new CRC32();
+        for (Map.Entry<Integer, List<Path>> shard : filesByShard.entrySet()) {
+            readShard(shard.getKey(), shard.getValue(), buffer, checksum, consumer);
+        }
+    }
+
+    private static void readShard(int shard, List<Path> files, ByteBuffer buffer, CRC32 checksum,
+                                  Consumer<Record> consumer) throws IOException {
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer.clear();
+                while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                    buffer.flip();
+                    while (buffer.remaining() >= RECORD_SIZE) {
+                        int start = buffer.position();
+                        long seq = buffer.getLong();
+                        int productId = buffer.getInt();
+                        int delta = buffer.getInt();
+                        int storedCrc = buffer.getInt();
+                        checksum.reset();
+                        checksum.update(buffer.array(), start, RECORD_SIZE - 4);
+                        if ((int) checksum.getValue() != storedCrc) {
+                            // Torn tail, or the unwritten rest of the shard's last segment
+                            return;
+                        }
+                        consumer.accept(new Record(shard, seq, productId, delta));
+                    }
+                    boolean partial = buffer.hasRemaining();
+                    buffer.compact();
+                    if (partial && channel.position() == channel.size()) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteLogFiles(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(LEGACY_FILE));
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path shardDirectory : entries.filter(InventoryWriteBehindLog::isShardDirectory).toList()) {
+                for (Path file : segmentFiles(shardDirectory).values()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static boolean isShardDirectory(Path path) {
+        String name = path.getFileName().toString();
+        return Files.isDirectory(path) && name.startsWith(SHARD_PREFIX)
+                && name.substring(SHARD_PREFIX.length()).chars().allMatch(Character::isDigit)
+                && name.length() > SHARD_PREFIX.length();
+    }
+
+    // Segment files of a shard by the sequence number of their first record
+    private static NavigableMap<Long, Path> segmentFiles(Path shardDirectory) throws IOException {
+        NavigableMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> entries = Files.list(shardDirectory)) {
+            entries.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(file -> {
+                String name = file.getFileName().toString();
+                files.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+            });
+        }
+        return files;
+    }
+
+    record Record(int shard, long seq, int productId, int delta) {
+    }
+
+    /**
+     * Net stock delta per product, and per shard the sequence number of the last record included.
+     */
+    record Batch(Map<Integer, Integer> deltas, Map<Integer, Long> upToSeqs) {
+
+        boolean needsCheckpoint() {
+            return !upToSeqs.isEmpty();
+        }
+    }
+
+    private static final class Shard {
+
+        private final Path directory;
+        private final int segmentRecords;
+        // Closed segments still holding records newer than the checkpoint, by first sequence number
+        private final NavigableMap<Long, Segment> closed = new TreeMap<>();
+        private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        private final CRC32 crc = new CRC32();
+        private Map<Integer, Integer> pending = new HashMap<>();
+        private Segment active;
+        private int activeRecords;
+        private int forcedRecords;
+        private long lastSeq;
+        private long checkpointedSeq;
+
+        Shard(Path directory, int segmentRecords, long checkpointedSeq) {
+            this.directory = directory;
+            this.segmentRecords = segmentRecords;
+            this.lastSeq = checkpointedSeq;
+            this.checkpointedSeq = checkpointedSeq;
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create inventory write-behind log shard " + directory, e);
+            }
+            this.active = Segment.create(directory, checkpointedSeq + 1, segmentRecords);
+        }
+
+        synchronized long append(int productId, int delta) {
+            if (activeRecords == segmentRecords) {
+                roll();
+            }
+            long seq = lastSeq + 1;
+            record.clear();
+            record.putLong(seq).putInt(productId).putInt(delta);
+            crc.reset();
+            crc.update(record.array(), 0, RECORD_SIZE - 4);
+            record.putInt((int) crc.getValue());
+            active.buffer.put(activeRecords * RECORD_SIZE, record.array(), 0, RECORD_SIZE);
+            activeRecords++;
+            lastSeq = seq;
+            pending.merge(productId, delta, (a, b) -> a + b == 0 ? null : a + b);
+            return seq;
+        }
+
+        // Adds the pending deltas to the batch; returns the last sequence number drained, or -1 if all are checkpointed.
+        // Deltas requeued after a failed flush are drained again even if nothing was appended since
+        long drainInto(Map<Integer, Integer> deltas) {
+            Segment segment;
+            int from;
+            int to;
+            long upToSeq;
+            synchronized (this) {
+                if (lastSeq == checkpointedSeq) {
+                    return -1;
+                }
+                deltas.putAll(pending);
+                pending = new HashMap<>();
+                segment = active;
+                from = forcedRecords;
+                to = activeRecords;
+                forcedRecords = activeRecords;
+                upToSeq = lastSeq;
+            }
+            // Outside the lock: appends continue while the page cache is written back.
+            // Segments closed since the previous drain were forced when they rolled over
+            if (to > from) {
+                segment.buffer.force(from * RECORD_SIZE, (to - from) * RECORD_SIZE);
+            }
+            return upToSeq;
+        }
+
+        synchronized void requeue(int productId, int delta) {
+            pending.merge(productId, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        synchronized void checkpointed(long seq) {
+            checkpointedSeq = Math.max(checkpointedSeq, seq);
+            while (!closed.isEmpty()) {
+                // A closed segment is full, so its last record is segmentRecords after its first
+                Map.Entry<Long, Segment> oldest = closed.firstEntry();
+                if (oldest.getKey() + segmentRecords - 1 > checkpointedSeq) {
+                    break;
+                }
+                closed.pollFirstEntry();
+                oldest.getValue().delete();
+            }
+        }
+
+        synchronized void close() {
+            active.buffer.force();
+        }
+
+        private void roll() {
+            active.buffer.force();
+            closed.put(active.firstSeq, active);
+            active = Segment.create(directory, lastSeq + 1, segmentRecords);
+            activeRecords = 0;
+            forcedRecords = 0;
+        }
+    }
+
+    private record Segment(Path file, long firstSeq, MappedByteBuffer buffer) {
+
+        static Segment create(Path directory, long firstSeq, int records) {
+            Path file = directory.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(file, firstSeq, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create inventory write-behind log segment " + file, e);
+            }
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete inventory write-behind log segment " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.dto.LiveFrame;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.event.SaleChangedEvent;
+import com.sparksupport.product.application.exception.ProductNotFoundException;
+import com.sparksupport.product.application.model.ProductSalesSummary;
+import com.sparksupport.product.application.repository.ProductSalesSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes live stock and revenue to dashboard subscribers over Server-Sent Events.
+ * <p>
+ * State is kept only for products someone watches and is updated from committed product and sale
+ * events, so a change costs one fan-out to its watchers instead of one query per dashboard poll.
+ * Each subscriber only collects the keys that changed and receives at most one frame per frame
+ * interval with their latest values, so its backlog never exceeds its subscription however busy
+ * sales are. A subscriber still writing its previous frame after maxLaggingFrames intervals is
+ * dropped and may reconnect for a fresh snapshot. A periodic reconcile from the database corrects
+ * changes made outside the services (imports) and any event applied out of order.
+ * <p>
+ * Revenue is read from the product sales summary rather than aggregated from the sale table. The
+ * summary may not have applied the latest sales yet (with the inventory engine it trails by about
+ * a second), so the reconcile leaves values that changed within the settle window alone.
+ */
+@Component
+@Slf4j
+public class LiveDashboardHub {
+
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final ProductSalesSummaryRepository productSalesSummaryRepository;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final Executor frameExecutor;
+    private final long emitterTimeoutMillis;
+    private final int maxProducts;
+    private final int maxLaggingFrames;
+    private final long settleMillis;
+
+    // Tracked state, guarded by this hub's monitor
+    private final Map<Integer, ProductLive> products = new HashMap<>();
+    private BigDecimal totalRevenue;
+    private long revenueChangedAt;
+
+    private final Map<Integer, Set<Subscriber>> productSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> revenueSubscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public LiveDashboardHub(ProductSalesSummaryRepository productSalesSummaryRepository,
+                            Optional<InventoryEngine> inventoryEngine,
+                            @Qualifier("liveFrameExecutor") Executor frameExecutor,
+                            @Value("${app.live.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                            @Value("${app.live.max-products-per-subscription:100}") int maxProducts,
+                            @Value("${app.live.max-lagging-frames:20}") int maxLaggingFrames,
+                            @Value("${app.live.reconcile-settle-ms:5000}") long settleMillis) {
+        this.productSalesSummaryRepository = productSalesSummaryRepository;
+        this.inventoryEngine = inventoryEngine;
+        this.frameExecutor = frameExecutor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxProducts = maxProducts;
+        this.maxLaggingFrames = maxLaggingFrames;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Subscribe to stock and revenue of the given products and/or total revenue.
+     * The first frame is a full snapshot; later frames carry only what changed.
+     */
+    public SseEmitter subscribe(Collection<Integer> productIds, boolean revenue) {
+        Set<Integer> ids = productIds == null ? Set.of() : new LinkedHashSet<>(productIds);
+        if (ids.isEmpty() && !revenue) {
+            throw new IllegalArgumentException("Subscribe to at least one productId or to revenue");
+        }
+        if (ids.size() > maxProducts) {
+            throw new IllegalArgumentException("At most " + maxProducts + " products per subscription");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, ids, revenue);
+        track(ids, revenue, subscriber);
+        subscriber.dirtyProducts.addAll(ids);
+        subscriber.revenueDirty = revenue;
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        Set<Subscriber> watchers = productSubscribers.get(event.productId());
+        if (watchers == null) {
+            return;
+        }
+        synchronized (this) {
+            ProductLive state = products.get(event.productId());
+            if (state == null) {
+                return;
+            }
+            if (event.quantity() != null) {
+                state.quantity = event.quantity();
+            }
+            state.deleted = event.type() == ProductChangedEvent.Type.DELETED;
+            state.changedAt = System.currentTimeMillis();
+        }
+        watchers.forEach(subscriber -> subscriber.dirtyProducts.add(event.productId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSaleChanged(SaleChangedEvent event) {
+        BigDecimal delta = event.revenueDelta();
+        if (delta.signum() == 0) {
+            return;
+        }
+        Set<Subscriber> watchers = productSubscribers.get(event.productId());
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (totalRevenue != null) {
+                totalRevenue = totalRevenue.add(delta);
+                revenueChangedAt = now;
+            }
+            ProductLive state = products.get(event.productId());
+            if (state != null) {
+                state.revenue = state.revenue.add(delta);
+                state.changedAt = now;
+            }
+        }
+        revenueSubscribers.forEach(subscriber -> subscriber.revenueDirty = true);
+        if (watchers != null) {
+            watchers.forEach(subscriber -> subscriber.dirtyProducts.add(event.productId()));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.live.frame-interval-ms:250}")
+    public void publishFrames() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.inFlight.get()) {
+                if (++subscriber.laggingFrames > maxLaggingFrames) {
+                    log.warn("Dropping live subscriber that fell {} frames behind", subscriber.laggingFrames);
+                    unsubscribe(subscriber);
+                    subscriber.emitter.complete();
+                }
+                continue;
+            }
+            LiveFrame frame = nextFrame(subscriber);
+            if (frame == null && now - subscriber.lastSentAt < HEARTBEAT_MILLIS) {
+                continue;
+            }
+            subscriber.inFlight.set(true);
+            try {
+                frameExecutor.execute(() -> send(subscriber, frame));
+            } catch (RejectedExecutionException e) {
+                // Every sender is busy: keep the changes for the next frame
+                subscriber.inFlight.set(false);
+                if (frame != null) {
+                    subscriber.dirtyProducts.addAll(frame.products().keySet());
+                    subscriber.revenueDirty |= frame.totalRevenue() != null;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        Set<Integer> tracked;
+        boolean revenueTracked;
+        synchronized (this) {
+            tracked = Set.copyOf(products.keySet());
+            revenueTracked = totalRevenue != null;
+        }
+        if (tracked.isEmpty() && !revenueTracked) {
+            return;
+        }
+
+        // Values changed after this are left alone: the summary may not include those changes yet
+        long settled = System.currentTimeMillis() - settleMillis;
+        Map<Integer, ProductLive> fresh = load(tracked);
+        BigDecimal freshRevenue = revenueTracked ? productSalesSummaryRepository.sumRevenue() : null;
+        synchronized (this) {
+            fresh.forEach((id, loaded) -> {
+                ProductLive state = products.get(id);
+                if (state != null && state.changedAt < settled && !state.sameAs(loaded)) {
+                    state.quantity = loaded.quantity;
+                    state.revenue = loaded.revenue;
+                    state.deleted = loaded.deleted;
+                    productSubscribers.getOrDefault(id, Set.of()).forEach(subscriber -> subscriber.dirtyProducts.add(id));
+                }
+            });
+            if (freshRevenue != null && totalRevenue != null && revenueChangedAt < settled
+                    && freshRevenue.compareTo(totalRevenue) != 0) {
+                totalRevenue = freshRevenue;
+                revenueSubscribers.forEach(subscriber -> subscriber.revenueDirty = true);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Loads state for products and revenue nobody watched yet and registers the subscriber. The
+     * queries run outside the monitor, so events and frames never wait on them; the state is merged
+     * under it together with the registration, loading again if the last watcher of something this
+     * subscriber needs left in between. An event committed between a load and its merge is
+     * corrected by the next reconcile.
+     */
+    private void track(Set<Integer> ids, boolean revenue, Subscriber subscriber) {
+        Map<Integer, ProductLive> loaded = new HashMap<>();
+        BigDecimal loadedRevenue = null;
+        while (true) {
+            List<Integer> missing;
+            boolean revenueMissing;
+            synchronized (this) {
+                missing = ids.stream().filter(id -> !products.containsKey(id) && !loaded.containsKey(id)).toList();
+                revenueMissing = revenue && totalRevenue == null && loadedRevenue == null;
+                if (missing.isEmpty() && !revenueMissing) {
+                    ids.forEach(id -> {
+                        ProductLive state = loaded.get(id);
+                        if (state != null) {
+                            products.putIfAbsent(id, state);
+                        }
+                    });
+                    if (revenue && totalRevenue == null) {
+                        totalRevenue = loadedRevenue;
+                    }
+                    subscribers.add(subscriber);
+                    ids.forEach(id -> productSubscribers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+                    if (revenue) {
+                        revenueSubscribers.add(subscriber);
+                    }
+                    return;
+                }
+            }
+            Map<Integer, ProductLive> fresh = load(missing);
+            for (Integer id : missing) {
+                ProductLive state = fresh.get(id);
+                if (state == null || state.deleted) {
+                    throw new ProductNotFoundException(id);
+                }
+            }
+            loaded.putAll(fresh);
+            if (revenueMissing) {
+                loadedRevenue = productSalesSummaryRepository.sumRevenue();
+            }
+        }
+    }
+
+    private Map<Integer, ProductLive> load(Collection<Integer> ids) {
+        Map<Integer, ProductLive> loaded = new HashMap<>();
+        if (ids.isEmpty()) {
+            return loaded;
+        }
+        for (ProductSalesSummary summary : productSalesSummaryRepository.findAllById(ids)) {
+            Integer productId = summary.getProductId();
+            int quantity = inventoryEngine.map(engine -> engine.stock(productId)).orElse(summary.getQuantity());
+            loaded.put(productId, new ProductLive(quantity, summary.getRevenue(), summary.getIsDeleted()));
+        }
+        return loaded;
+    }
+
+    // Drains the subscriber's changed keys into a frame of current values, or null when nothing changed
+    private LiveFrame nextFrame(Subscriber subscriber) {
+        if (subscriber.dirtyProducts.isEmpty() && !subscriber.revenueDirty) {
+            return null;
+        }
+        Map<Integer, LiveFrame.ProductState> changed = new HashMap<>();
+        BigDecimal revenue = null;
+        boolean revenueDirty = subscriber.revenueDirty;
+        subscriber.revenueDirty = false;
+        synchronized (this) {
+            for (var iterator = subscriber.dirtyProducts.iterator(); iterator.hasNext(); ) {
+                Integer id = iterator.next();
+                iterator.remove();
+                ProductLive state = products.get(id);
+                if (state != null) {
+                    changed.put(id, new LiveFrame.ProductState(state.quantity, state.revenue, state.deleted));
+                }
+            }
+            if (revenueDirty) {
+                revenue = totalRevenue;
+            }
+        }
+        return new LiveFrame(changed, revenue, Instant.now());
+    }
+
+    private void send(Subscriber subscriber, LiveFrame frame) {
+        try {
+            if (frame != null) {
+                subscriber.emitter.send(SseEmitter.event().name("update").data(frame, MediaType.APPLICATION_JSON));
+            } else {
+                // Keeps proxies from closing an idle stream and detects clients that went away
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            subscriber.lastSentAt = System.currentTimeMillis();
+            subscriber.laggingFrames = 0;
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.inFlight.set(false);
+        }
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Integer id : subscriber.productIds) {
+            Set<Subscriber> watchers = productSubscribers.get(id);
+            if (watchers != null && watchers.remove(subscriber) && watchers.isEmpty()) {
+                productSubscribers.remove(id);
+                products.remove(id);
+            }
+        }
+        if (revenueSubscribers.remove(subscriber) && revenueSubscribers.isEmpty()) {
+            totalRevenue = null;
+        }
+    }
+
+    private static final class ProductLive {
+        private int quantity;
+        private BigDecimal revenue;
+        private boolean deleted;
+        private long changedAt;
+
+        private ProductLive(int quantity, BigDecimal revenue, boolean deleted) {
+            this.quantity = quantity;
+            this.revenue = revenue;
+            this.deleted = deleted;
+        }
+
+        private boolean sameAs(ProductLive other) {
+            return quantity == other.quantity && revenue.compareTo(other.revenue) == 0 && deleted == other.deleted;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Integer> productIds;
+        private final boolean revenue;
+        // Pending changes, bounded by the subscription: a key is either dirty or not
+        private final Set<Integer> dirtyProducts = ConcurrentHashMap.newKeySet();
+        private volatile boolean revenueDirty;
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        private volatile int laggingFrames;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Subscriber(SseEmitter emitter, Set<Integer> productIds, boolean revenue) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.revenue = revenue;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sparksupport.product.application.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.event.SaleChangedEvent;
+import com.sparksupport.product.application.model.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes product and sale change events to the outbox inside the transaction that made the
+ * change, so an event exists exactly when its change commits. JDBC bulk paths that bypass the
+ * services call {@link #writeProductSnapshots} themselves.
+ */
+@Component
+public class OutboxWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // One event per product whose price history got a row from the given bulk operation
+    private static final String SNAPSHOT_SQL =
+            "INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) " +
+            "SELECT '" + OutboxEvent.PRODUCT + "', p.id, ?, " +
+            "CONCAT('{\"productId\":', p.id, ',\"price\":', h.price, ',\"quantity\":', p.quantity, '}'), ? " +
+            "FROM product_price_history h JOIN product p ON p.id = h.product_id " +
+            "WHERE h.effective_from = ? AND h.change_source = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        insert(OutboxEvent.PRODUCT, event.productId(), "PRODUCT_" + event.type(), event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSaleChanged(SaleChangedEvent event) {
+        insert(OutboxEvent.SALE, event.saleId(), "SALE_" + event.type(), event);
+    }
+
+    /**
+     * Set-based outbox write for bulk repricing and imports, keyed by the price-history rows
+     * the operation wrote. Must run inside the bulk operation's transaction.
+     */
+    public int writeProductSnapshots(String eventType, LocalDateTime effectiveFrom, String historySource) {
+        return jdbcTemplate.update(SNAPSHOT_SQL, eventType, LocalDateTime.now(), effectiveFrom, historySource);
+    }
+
+    private void insert(String aggregateType, Integer aggregateId, String eventType, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " event", e);
+        }
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, payload, LocalDateTime.now());
+    }
+}
@@ -6,8 +6,16 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class PdfTaskManager {
 
+    // Finished reports are stored gzip-compressed so downloads can send the bytes as-is
+    public static final String FILE_PREFIX = "products-report-";
+    public static final String FILE_SUFFIX = ".pdf.gz";
+
     private final ConcurrentHashMap<String, String> jobStatusMap = new ConcurrentHashMap<>();
 
+    public static String storedFileName(String jobId) {
+        return FILE_PREFIX + jobId + FILE_SUFFIX;
+    }
+
     public void setJobStatus(String jobId, String status) {
         jobStatusMap.put(jobId, status);
     }
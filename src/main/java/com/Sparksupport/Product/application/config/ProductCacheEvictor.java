@@ -0,0 +1,49 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Drops second-level cache state for products after writes that bypass Hibernate
+ * (JDBC batch statements), which Hibernate cannot invalidate on its own, together with the
+ * ETags remembered for them. A full eviction also reloads the search index, whose change
+ * events such writes do not publish.
+ */
+@Component
+public class ProductCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductETagCache productETagCache;
+    private final ProductSearchIndex productSearchIndex;
+
+    public ProductCacheEvictor(EntityManagerFactory entityManagerFactory, ProductETagCache productETagCache,
+                               ProductSearchIndex productSearchIndex) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.productETagCache = productETagCache;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    public void evictAll() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Product.class);
+        cache.evictQueryRegion(ProductRepository.PRODUCT_QUERY_REGION);
+        cache.evictDefaultQueryRegion();
+        productETagCache.invalidateAll();
+        productSearchIndex.requestReload();
+    }
+
+    // Entity data only: cached query results hold ids and stay valid when just quantities change
+    public void evictProducts(Collection<Integer> productIds) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Integer productId : productIds) {
+            cache.evictEntityData(Product.class, productId);
+        }
+        productETagCache.invalidate(productIds);
+    }
+}
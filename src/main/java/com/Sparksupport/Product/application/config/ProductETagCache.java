@@ -0,0 +1,113 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.model.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETags for product reads: strong ones derived from the entity {@code @Version} (single product)
+ * and weak ones from a catalog generation counter bumped on every product write (listings, which
+ * the connector compresses and so may send in more than one encoding). Remembering the last
+ * tag served per product lets a matching {@code If-None-Match} be answered with 304 without a
+ * database round trip; committed writes and JDBC-bypass writes drop the remembered tags along
+ * with the encoded bodies held for them by {@link ProductResponseCache}.
+ *
+ * <p>The generation is per instance and seeded from the boot time, so listing tags from a
+ * previous run never match; behind a load balancer each node may revalidate independently.
+ */
+@Component
+public class ProductETagCache {
+
+    private final Map<Integer, String> productTags = new ConcurrentHashMap<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final ProductResponseCache productResponseCache;
+
+    public ProductETagCache(ProductResponseCache productResponseCache) {
+        this.productResponseCache = productResponseCache;
+    }
+
+    /** Last tag served for the product, or null when it must be recomputed from the database. */
+    public String productTag(Integer productId) {
+        return productTags.get(productId);
+    }
+
+    /** Snapshot to take before loading a product and hand back to {@link #remember}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Computes the product's tag and remembers it, unless a write was signalled since
+     * {@code loadedAt}; the loaded row may then predate it and must not be answered from memory.
+     */
+    public String remember(Product product, long loadedAt) {
+        String tag = "\"p" + product.getId() + "-v" + product.getVersion() + "\"";
+        synchronized (this) {
+            if (generation.get() == loadedAt) {
+                productTags.put(product.getId(), tag);
+            }
+        }
+        return tag;
+    }
+
+    /** Weak tag for a listing view; {@code variant} distinguishes pages and sizes. */
+    public String catalogTag(String variant) {
+        return "W/\"c" + epoch + "-" + generation.get() + "-" + variant + "\"";
+    }
+
+    public synchronized void invalidate(Collection<Integer> productIds) {
+        generation.incrementAndGet();
+        for (Integer productId : productIds) {
+            String tag = productTags.remove(productId);
+            if (tag != null) {
+                productResponseCache.evict(tag);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        productTags.clear();
+        productResponseCache.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(List.of(event.productId()));
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so a {@code W/} prefix on the client's copy still matches,
+     * as does the tag of the gzip representation of the same version.
+     */
+    public static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null || tag == null) {
+            return false;
+        }
+        String opaqueTag = opaque(tag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (opaque.endsWith(ProductResponseCache.GZIP_TAG_SUFFIX + "\"")) {
+            opaque = opaque.substring(0, opaque.length() - ProductResponseCache.GZIP_TAG_SUFFIX.length() - 1) + "\"";
+        }
+        return opaque;
+    }
+}
@@ -0,0 +1,139 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory set of normalized active product names used to skip the uniqueness query for names
+ * that certainly do not exist; a hit is confirmed against the database. The set only sees this
+ * instance's writes, so a miss is trusted only when the database enforces unique names: the
+ * unique index on product.name is looked up at startup, and without it every lookup goes to the
+ * database.
+ */
+@Component
+@Slf4j
+public class ProductNameIndex {
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // null until the first load completes - every lookup then falls through to the database
+    private volatile Set<String> names;
+    // Name of the unique index on product.name, null when the database has none
+    private volatile String uniqueNameIndex;
+
+    public ProductNameIndex(ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        uniqueNameIndex = findUniqueNameIndex();
+        if (uniqueNameIndex == null) {
+            log.warn("No unique index on product.name; product name checks always query the database");
+        }
+        rebuild();
+    }
+
+    /**
+     * Reload the index from the database.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> activeNames = productRepository.streamActiveProductNames()) {
+                activeNames.map(ProductNameIndex::normalize).forEach(loaded::add);
+            }
+        });
+        names = loaded;
+        log.info("Product name index loaded with {} names in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return false if no active product can have this name, true if the database must be asked
+     */
+    public boolean mightExist(String name) {
+        Set<String> current = names;
+        if (current == null || name == null || uniqueNameIndex == null) {
+            return true;
+        }
+        return current.contains(normalize(name));
+    }
+
+    public void add(String name) {
+        Set<String> current = names;
+        if (current != null && name != null) {
+            current.add(normalize(name));
+        }
+    }
+
+    public void remove(String name) {
+        Set<String> current = names;
+        if (current != null && name != null) {
+            current.remove(normalize(name));
+        }
+    }
+
+    /**
+     * @return true if a constraint named in a violation (with or without a schema or table qualifier)
+     * is the unique index on product.name
+     */
+    public boolean isUniqueNameIndex(String constraintName) {
+        String index = uniqueNameIndex;
+        if (index == null || constraintName == null) {
+            return false;
+        }
+        return constraintName.substring(constraintName.lastIndexOf('.') + 1).equalsIgnoreCase(index);
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // A unique index whose only column is product.name, from the primary's metadata
+    private String findUniqueNameIndex() {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? "PRODUCT" : "product";
+            Map<String, List<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                while (rows.next()) {
+                    String index = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        columnsByIndex.computeIfAbsent(index, key -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            return columnsByIndex.entrySet().stream()
+                    .filter(index -> index.getValue().size() == 1 && index.getValue().get(0).equalsIgnoreCase("name"))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(null);
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.sparksupport.product.application.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.util.ContentCodingUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON for single-product responses, keyed by the version ETag, so a hot
+ * product is serialized once per version and its bytes are written straight to the response
+ * instead of going through Jackson on every read. Bodies past {@code gzip-min-bytes} also keep a
+ * gzip copy for clients that accept it.
+ *
+ * <p>An entry can never be stale, since its key changes with the version; {@link ProductETagCache}
+ * evicts the entries it invalidates so superseded versions do not hold memory until they age out.
+ */
+@Component
+public class ProductResponseCache {
+
+    /** Appended inside the quotes of the tag for the gzip representation, which must differ from the identity one. */
+    public static final String GZIP_TAG_SUFFIX = "-gz";
+
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+    private final int gzipMinBytes;
+    private final Map<String, Encoded> entries;
+
+    public ProductResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${app.response-cache.max-entries:10000}") int maxEntries,
+                                @Value("${app.response-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("product.response.cache", "outcome", "hit");
+        this.misses = meterRegistry.counter("product.response.cache", "outcome", "miss");
+        this.gzipMinBytes = gzipMinBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Encoded> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public record Encoded(String eTag, byte[] json, byte[] gzip) { }
+
+    public Encoded get(String eTag) {
+        Encoded encoded;
+        synchronized (entries) {
+            encoded = entries.get(eTag);
+        }
+        (encoded != null ? hits : misses).increment();
+        return encoded;
+    }
+
+    /** Serializes the body once and remembers the bytes under its ETag. */
+    public Encoded encode(String eTag, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for " + eTag, e);
+        }
+        Encoded encoded = new Encoded(eTag, json, json.length >= gzipMinBytes ? gzip(json) : null);
+        synchronized (entries) {
+            entries.put(eTag, encoded);
+        }
+        return encoded;
+    }
+
+    public void evict(String eTag) {
+        synchronized (entries) {
+            entries.remove(eTag);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public static ResponseEntity<byte[]> respond(Encoded encoded, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache());
+        if (encoded.gzip() == null) {
+            return builder.eTag(encoded.eTag()).body(encoded.json());
+        }
+        builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (ContentCodingUtil.negotiate(acceptEncoding, ContentCodingUtil.GZIP) == null) {
+            return builder.eTag(encoded.eTag()).body(encoded.json());
+        }
+        String tag = encoded.eTag();
+        return builder.eTag(tag.substring(0, tag.length() - 1) + GZIP_TAG_SUFFIX + "\"")
+                .header(HttpHeaders.CONTENT_ENCODING, ContentCodingUtil.GZIP)
+                .body(encoded.gzip());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
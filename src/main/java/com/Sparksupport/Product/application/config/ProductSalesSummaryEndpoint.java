@@ -0,0 +1,65 @@
+package com.sparksupport.product.application.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/salessummary - GET compares the product sales summary with the product and sale
+ * tables; POST with {"action": "repair"} recomputes the mismatched rows, with
+ * {"action": "rebuild"} every row.
+ */
+@Component
+@Endpoint(id = "salessummary")
+public class ProductSalesSummaryEndpoint {
+
+    private static final int SAMPLE_SIZE = 100;
+
+    private final ProductSalesSummaryWriter productSalesSummaryWriter;
+
+    public ProductSalesSummaryEndpoint(ProductSalesSummaryWriter productSalesSummaryWriter) {
+        this.productSalesSummaryWriter = productSalesSummaryWriter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> check() {
+        return checkResponse(false);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> maintain(String action) {
+        if ("repair".equals(action)) {
+            return new WebEndpointResponse<>(checkResponse(true));
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (!"rebuild".equals(action)) {
+            response.put("error", "action must be 'repair' or 'rebuild'");
+            return new WebEndpointResponse<>(response, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        long started = System.currentTimeMillis();
+        long rows = productSalesSummaryWriter.rebuild();
+
+        response.put("rowsWritten", rows);
+        response.put("durationMs", System.currentTimeMillis() - started);
+        return new WebEndpointResponse<>(response);
+    }
+
+    private Map<String, Object> checkResponse(boolean repair) {
+        long started = System.currentTimeMillis();
+        ProductSalesSummaryWriter.CheckResult result = productSalesSummaryWriter.check(repair);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("consistent", result.mismatched().isEmpty());
+        response.put("mismatches", result.mismatched().size());
+        response.put("mismatchedProductIds", result.mismatched().subList(0, Math.min(SAMPLE_SIZE, result.mismatched().size())));
+        response.put("repaired", result.repaired());
+        response.put("chunks", result.chunks());
+        response.put("durationMs", System.currentTimeMillis() - started);
+        return response;
+    }
+}
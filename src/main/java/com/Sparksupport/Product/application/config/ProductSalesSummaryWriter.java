@@ -0,0 +1,504 @@
+package com.sparksupport.product.application.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.event.SaleChangedEvent;
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Keeps product_sales_summary (see {@link com.sparksupport.product.application.model.ProductSalesSummary})
+ * in step with products and sales. Service writes are applied as deltas before their transaction
+ * commits, like {@link OutboxWriter}, so a summary row changes exactly when its product or sale
+ * does; JDBC bulk paths call {@link #syncProducts} themselves. A missing row is recomputed from
+ * the source tables in the same transaction.
+ *
+ * <p>With the inventory engine enabled, sales no longer lock the product row, and a per-sale update
+ * of the summary row would make it the hot row instead. Sale and stock deltas are then read back
+ * from the outbox in relay sequence order and applied in batches every apply interval, moving an
+ * {@link com.sparksupport.product.application.model.OutboxConsumerOffset} in the same transaction;
+ * the summary trails sales by about a relay poll plus an apply interval, and needs the outbox
+ * relay running. A recompute takes the sales not yet applied back out, and quantities follow the
+ * engine's stock while the product table trails it, so the check leaves quantities alone.
+ *
+ * <p>{@link #rebuild} and {@link #check} walk the product id space in chunks, each in its own
+ * short transaction. The check runs nightly and repairs what it finds; both are also exposed on
+ * /actuator/salessummary.
+ */
+@Component
+@Slf4j
+public class ProductSalesSummaryWriter implements SmartInitializingSingleton {
+
+    private static final String PRODUCT_SQL =
+            "UPDATE product_sales_summary SET name = ?, description = ?, price = ?, quantity = ?, is_deleted = ? " +
+            "WHERE product_id = ?";
+
+    private static final String STOCK_SQL = "UPDATE product_sales_summary SET quantity = ? WHERE product_id = ?";
+
+    private static final String SALE_CREATED_SQL =
+            "UPDATE product_sales_summary SET revenue = revenue + ?, units_sold = units_sold + ?, " +
+            "last_sale_date = CASE WHEN last_sale_date IS NULL OR last_sale_date < ? THEN ? ELSE last_sale_date END " +
+            "WHERE product_id = ?";
+
+    private static final String SALE_CHANGED_SQL =
+            "UPDATE product_sales_summary SET revenue = revenue + ?, units_sold = units_sold + ?, " +
+            "last_sale_date = (SELECT MAX(sale_date) FROM sale WHERE product_id = ? AND is_deleted = false) " +
+            "WHERE product_id = ?";
+
+    private static final String UNSALE_SQL =
+            "UPDATE product_sales_summary SET revenue = revenue - ?, units_sold = units_sold - ? WHERE product_id = ?";
+
+    // Catalog columns of every product the bulk operation wrote a price-history row for; rows
+    // created here are new products, which have no sales yet
+    private static final String SYNC_SQL =
+            "INSERT INTO product_sales_summary " +
+            "(product_id, name, description, price, quantity, revenue, units_sold, last_sale_date, is_deleted) " +
+            "SELECT p.id, p.name, p.description, p.price, p.quantity, 0, 0, NULL, p.is_deleted " +
+            "FROM product_price_history h JOIN product p ON p.id = h.product_id " +
+            "WHERE h.effective_from = ? AND h.change_source = ? " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price), " +
+            "quantity = VALUES(quantity), is_deleted = VALUES(is_deleted)";
+
+    // Bulk repricing with the inventory engine enabled: product.quantity trails the engine
+    private static final String SYNC_CATALOG_SQL = SYNC_SQL.replace("quantity = VALUES(quantity), ", "");
+
+    // Sales totals of the products in an id range, read through idx_sale_product_revenue
+    private static final String RANGE_TOTALS =
+            "(SELECT product_id, SUM(sale_price * quantity) AS revenue, SUM(quantity) AS units_sold, " +
+            "MAX(sale_date) AS last_sale_date FROM sale " +
+            "WHERE is_deleted = false AND product_id BETWEEN ? AND ? GROUP BY product_id) a";
+
+    // Taken first so a chunk locks in the same order as the service writes: product, then summary
+    private static final String LOCK_RANGE_SQL = "SELECT id FROM product WHERE id BETWEEN ? AND ? FOR UPDATE";
+
+    private static final String DELETE_RANGE_SQL = "DELETE FROM product_sales_summary WHERE product_id BETWEEN ? AND ?";
+
+    private static final String INSERT_RANGE_SQL =
+            "INSERT INTO product_sales_summary " +
+            "(product_id, name, description, price, quantity, revenue, units_sold, last_sale_date, is_deleted) " +
+            "SELECT p.id, p.name, p.description, p.price, p.quantity, COALESCE(a.revenue, 0), " +
+            "COALESCE(a.units_sold, 0), a.last_sale_date, p.is_deleted " +
+            "FROM product p LEFT JOIN " + RANGE_TOTALS + " ON a.product_id = p.id WHERE p.id BETWEEN ? AND ?";
+
+    private static final String MISMATCH_SQL =
+            "SELECT p.id FROM product p " +
+            "LEFT JOIN product_sales_summary s ON s.product_id = p.id " +
+            "LEFT JOIN " + RANGE_TOTALS + " ON a.product_id = p.id " +
+            "WHERE p.id BETWEEN ? AND ? AND (s.product_id IS NULL " +
+            "OR s.revenue <> COALESCE(a.revenue, 0) OR s.units_sold <> COALESCE(a.units_sold, 0) " +
+            "OR (s.last_sale_date IS NULL) <> (a.last_sale_date IS NULL) OR s.last_sale_date <> a.last_sale_date " +
+            "OR COALESCE(s.name, '') <> COALESCE(p.name, '') " +
+            "OR COALESCE(s.description, '') <> COALESCE(p.description, '') " +
+            "OR COALESCE(s.price, -1) <> COALESCE(p.price, -1) OR s.is_deleted <> p.is_deleted";
+
+    private static final String ID_RANGE_SQL = "SELECT MIN(id) AS low, MAX(id) AS high FROM product";
+
+    // Outbox consumer used with the inventory engine enabled
+    private static final String CONSUMER = "product-sales-summary";
+    private static final String SALE_EVENTS = "('SALE_CREATED', 'SALE_UPDATED', 'SALE_DELETED')";
+    private static final String STOCK_EVENT = "PRODUCT_STOCK_CHANGED";
+
+    private static final String LOCK_OFFSET_SQL = "SELECT last_seq FROM outbox_consumer_offset WHERE consumer = ? FOR UPDATE";
+    private static final String START_OFFSET_SQL =
+            "INSERT INTO outbox_consumer_offset (consumer, last_seq) SELECT ?, COALESCE(MAX(seq), 0) FROM outbox_event";
+    private static final String MOVE_OFFSET_SQL = "UPDATE outbox_consumer_offset SET last_seq = ? WHERE consumer = ?";
+    private static final String DROP_OFFSET_SQL = "DELETE FROM outbox_consumer_offset WHERE consumer = ?";
+    private static final String MAX_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM outbox_event";
+
+    // Sequences are gap-free, so a range of APPLY_BATCH sequences holds at most that many events
+    private static final String RELAYED_SQL =
+            "SELECT event_type, aggregate_id, payload FROM outbox_event WHERE seq > ? AND seq <= ? " +
+            "AND (event_type IN " + SALE_EVENTS + " OR event_type = '" + STOCK_EVENT + "')";
+
+    // Committed sales the consumer has not applied yet, relayed or not
+    private static final String UNAPPLIED_SQL =
+            "SELECT payload FROM outbox_event WHERE (seq IS NULL OR seq > ?) AND event_type IN " + SALE_EVENTS;
+
+    private static final int APPLY_BATCH = 1000;
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    // Transaction resource key for the products recomputed in that transaction
+    private final Object recomputedKey = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    // Null unless the inventory engine is enabled, which switches sales and stock to the outbox consumer
+    private final InventoryEngine inventoryEngine;
+    private final int chunkSize;
+    private volatile boolean rebuildOnReady;
+
+    public ProductSalesSummaryWriter(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                     Optional<InventoryEngine> inventoryEngine,
+                                     @Value("${app.sales-summary.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.inventoryEngine = inventoryEngine.orElse(null);
+        this.chunkSize = chunkSize;
+    }
+
+    public record CheckResult(int chunks, List<Integer> mismatched, boolean repaired) { }
+
+    /**
+     * Starts the outbox consumer at the relay's current position when the inventory engine is
+     * switched on, and drops it when it is switched off. Either way the rows are rebuilt once the
+     * application is ready: the rebuild takes back out what the consumer will still apply.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (inventoryEngine != null) {
+            try {
+                rebuildOnReady = jdbcTemplate.update(START_OFFSET_SQL, CONSUMER) > 0;
+            } catch (DuplicateKeyException e) {
+                // Already consuming, or another instance started it first
+            }
+        } else {
+            rebuildOnReady = jdbcTemplate.update(DROP_OFFSET_SQL, CONSUMER) > 0;
+        }
+        if (rebuildOnReady) {
+            log.info("Product sales summary switched to {} sale deltas, rebuilding when ready",
+                    inventoryEngine != null ? "outbox-applied" : "in-transaction");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfEmpty() {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_sales_summary", Long.class);
+        if (rebuildOnReady || (rows != null && rows == 0)) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.Type.STOCK_CHANGED && inventoryEngine != null) {
+            return;
+        }
+        // Pending entity changes go out first: the product row is always locked before the summary row
+        flush();
+        int updated;
+        if (event.type() == ProductChangedEvent.Type.STOCK_CHANGED) {
+            updated = jdbcTemplate.update(STOCK_SQL, event.quantity(), event.productId());
+        } else {
+            Product product = entityManager.find(Product.class, event.productId());
+            if (product == null) {
+                return;
+            }
+            // A count the engine holds is ahead of the entity's flushed quantity
+            Integer loaded = inventoryEngine != null ? inventoryEngine.loadedStock(product.getId()) : null;
+            int quantity = loaded != null ? loaded : product.getQuantity();
+            updated = jdbcTemplate.update(PRODUCT_SQL, product.getName(), product.getDescription(), product.getPrice(),
+                    quantity, product.getIsDeleted(), product.getId());
+        }
+        if (updated == 0) {
+            recomputeInTransaction(event.productId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSaleChanged(SaleChangedEvent event) {
+        if (inventoryEngine != null) {
+            return;
+        }
+        flush();
+        if (recomputedInTransaction().contains(event.productId())) {
+            // The recompute read this transaction's flushed sales, this one included
+            return;
+        }
+        int updated = event.type() == SaleChangedEvent.Type.CREATED
+                ? jdbcTemplate.update(SALE_CREATED_SQL, event.revenueDelta(), event.quantityDelta(),
+                        event.saleDate(), event.saleDate(), event.productId())
+                // An edited or deleted sale may have been the latest one
+                : jdbcTemplate.update(SALE_CHANGED_SQL, event.revenueDelta(), event.quantityDelta(),
+                        event.productId(), event.productId());
+        if (updated == 0) {
+            recomputeInTransaction(event.productId());
+        }
+    }
+
+    /**
+     * Set-based summary write for bulk repricing and imports, keyed by the price-history rows
+     * the operation wrote. Must run inside the bulk operation's transaction.
+     */
+    public int syncProducts(LocalDateTime effectiveFrom, String historySource) {
+        // Imports write quantities with the engine's changes flushed and its counts locked
+        boolean quantities = inventoryEngine == null || ProductPriceHistory.SOURCE_IMPORT.equals(historySource);
+        return jdbcTemplate.update(quantities ? SYNC_SQL : SYNC_CATALOG_SQL, effectiveFrom, historySource);
+    }
+
+    /**
+     * Applies relayed sale and stock events to the summary in batches, with the inventory engine
+     * enabled. A failed batch is rolled back with its offset and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.sales-summary.apply-interval-ms:1000}")
+    public void applyRelayed() {
+        if (inventoryEngine == null) {
+            return;
+        }
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> applyNextBatch()))) {
+                // Catching up
+            }
+        } catch (RuntimeException e) {
+            log.error("Applying relayed sales to the product sales summary failed, will retry", e);
+        }
+    }
+
+    /** Recomputes every row from the product and sale tables; returns the number of rows written. */
+    public long rebuild() {
+        long started = System.currentTimeMillis();
+        long written = 0;
+        for (long[] chunk : chunks()) {
+            written += inChunkTransaction(() -> recompute(chunk[0], chunk[1]));
+        }
+        log.info("Product sales summary rebuilt: {} rows in {} ms", written, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    /** Compares every row with the source tables, recomputing mismatched rows when {@code repair} is set. */
+    public CheckResult check(boolean repair) {
+        // Rows behind the outbox would all show up as mismatched
+        applyRelayed();
+        List<long[]> chunks = chunks();
+        List<Integer> mismatched = new ArrayList<>();
+        for (long[] chunk : chunks) {
+            List<Integer> found = inChunkTransaction(() -> {
+                List<Integer> ids = jdbcTemplate.queryForList(mismatchSql(), Integer.class,
+                        chunk[0], chunk[1], chunk[0], chunk[1]);
+                if (repair) {
+                    ids.forEach(id -> recompute(id, id));
+                }
+                return ids;
+            });
+            mismatched.addAll(found);
+        }
+        return new CheckResult(chunks.size(), mismatched, repair);
+    }
+
+    @Scheduled(cron = "${app.sales-summary.check-cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        CheckResult result = check(true);
+        if (!result.mismatched().isEmpty()) {
+            log.warn("Product sales summary check repaired {} rows, first ids {}", result.mismatched().size(),
+                    result.mismatched().subList(0, Math.min(20, result.mismatched().size())));
+        }
+    }
+
+    // One batch of relayed events after the consumer offset; true while more are waiting
+    private boolean applyNextBatch() {
+        Long applied = lockOffset();
+        // Read first, so every event up to it is visible to the range read below
+        long relayed = jdbcTemplate.queryForObject(MAX_SEQ_SQL, Long.class);
+        if (applied == null || relayed <= applied) {
+            return false;
+        }
+        long upTo = Math.min(relayed, applied + APPLY_BATCH);
+
+        // Product id order, so the batch locks summary rows in the order a concurrent batch would
+        Map<Integer, SaleDelta> sales = new TreeMap<>();
+        Set<Integer> stockChanged = new TreeSet<>();
+        jdbcTemplate.query(RELAYED_SQL, (RowCallbackHandler) rs -> {
+            if (STOCK_EVENT.equals(rs.getString("event_type"))) {
+                stockChanged.add(rs.getInt("aggregate_id"));
+            } else {
+                SaleChangedEvent event = readSale(rs.getString("payload"));
+                sales.computeIfAbsent(event.productId(), id -> new SaleDelta()).add(event);
+            }
+        }, applied, upTo);
+
+        Set<Integer> missing = new TreeSet<>();
+        List<Integer> created = new ArrayList<>();
+        List<Object[]> createdArgs = new ArrayList<>();
+        List<Integer> changed = new ArrayList<>();
+        List<Object[]> changedArgs = new ArrayList<>();
+        sales.forEach((productId, delta) -> {
+            if (delta.edited) {
+                changed.add(productId);
+                changedArgs.add(new Object[]{delta.revenue, delta.units, productId, productId});
+            } else {
+                created.add(productId);
+                createdArgs.add(new Object[]{delta.revenue, delta.units, delta.latestCreated, delta.latestCreated, productId});
+            }
+        });
+        collectMissing(created, jdbcTemplate.batchUpdate(SALE_CREATED_SQL, createdArgs), missing);
+        collectMissing(changed, jdbcTemplate.batchUpdate(SALE_CHANGED_SQL, changedArgs), missing);
+
+        List<Integer> stocked = new ArrayList<>(stockChanged);
+        List<Object[]> stockArgs = new ArrayList<>(stocked.size());
+        stocked.forEach(productId -> stockArgs.add(new Object[]{inventoryEngine.stock(productId), productId}));
+        collectMissing(stocked, jdbcTemplate.batchUpdate(STOCK_SQL, stockArgs), missing);
+
+        jdbcTemplate.update(MOVE_OFFSET_SQL, upTo, CONSUMER);
+        // Recomputed past the new offset, so this batch's sales come from the sale table
+        missing.forEach(productId -> recompute(productId, productId));
+        return upTo < relayed;
+    }
+
+    private static void collectMissing(List<Integer> productIds, int[] updated, Set<Integer> missing) {
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(productIds.get(i));
+            }
+        }
+    }
+
+    private Long lockOffset() {
+        List<Long> applied = jdbcTemplate.queryForList(LOCK_OFFSET_SQL, Long.class, CONSUMER);
+        return applied.isEmpty() ? null : applied.get(0);
+    }
+
+    private SaleChangedEvent readSale(String payload) {
+        try {
+            return objectMapper.readValue(payload, SaleChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read sale event " + payload, e);
+        }
+    }
+
+    // Replaces the rows of an id range from the source tables, in the caller's transaction
+    private int recompute(long fromId, long toId) {
+        jdbcTemplate.queryForList(LOCK_RANGE_SQL, Integer.class, fromId, toId);
+        // Locked after the products, in the order of a service transaction that recomputes a row
+        Long applied = inventoryEngine != null ? lockOffset() : null;
+        jdbcTemplate.update(DELETE_RANGE_SQL, fromId, toId);
+        int written = jdbcTemplate.update(INSERT_RANGE_SQL, fromId, toId, fromId, toId);
+        if (inventoryEngine != null) {
+            if (applied != null) {
+                subtractUnapplied(applied, fromId, toId);
+            }
+            List<Object[]> stockArgs = new ArrayList<>();
+            inventoryEngine.loadedStock(fromId, toId).forEach((productId, quantity) ->
+                    stockArgs.add(new Object[]{quantity, productId}));
+            jdbcTemplate.batchUpdate(STOCK_SQL, stockArgs);
+        }
+        return written;
+    }
+
+    // The sale table already holds sales the consumer will still apply; on MySQL the range read
+    // above locked the sale index range, so no sale of these products commits in between
+    private void subtractUnapplied(long applied, long fromId, long toId) {
+        Map<Integer, SaleDelta> unapplied = new TreeMap<>();
+        jdbcTemplate.query(UNAPPLIED_SQL, (RowCallbackHandler) rs -> {
+            SaleChangedEvent event = readSale(rs.getString("payload"));
+            if (event.productId() >= fromId && event.productId() <= toId) {
+                unapplied.computeIfAbsent(event.productId(), id -> new SaleDelta()).add(event);
+            }
+        }, applied);
+        List<Object[]> args = new ArrayList<>(unapplied.size());
+        unapplied.forEach((productId, delta) -> args.add(new Object[]{delta.revenue, delta.units, productId}));
+        jdbcTemplate.batchUpdate(UNSALE_SQL, args);
+    }
+
+    private void recomputeInTransaction(Integer productId) {
+        recompute(productId, productId);
+        recomputedInTransaction().add(productId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> recomputedInTransaction() {
+        Set<Integer> productIds = (Set<Integer>) TransactionSynchronizationManager.getResource(recomputedKey);
+        if (productIds == null) {
+            productIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(recomputedKey, productIds);
+            ReservationLedger.afterCompletion(committed -> TransactionSynchronizationManager.unbindResourceIfPossible(recomputedKey));
+        }
+        return productIds;
+    }
+
+    // Translated like a commit-time flush would be, so a version conflict still reaches the conflict retry
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private String mismatchSql() {
+        return MISMATCH_SQL + (inventoryEngine == null ? " OR s.quantity <> p.quantity)" : ")");
+    }
+
+    private List<long[]> chunks() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE_SQL);
+        List<long[]> chunks = new ArrayList<>();
+        if (range.get("low") == null) {
+            return chunks;
+        }
+        long low = ((Number) range.get("low")).longValue();
+        long high = ((Number) range.get("high")).longValue();
+        for (long from = low; from <= high; from += chunkSize) {
+            chunks.add(new long[]{from, Math.min(high, from + chunkSize - 1)});
+        }
+        return chunks;
+    }
+
+    // A chunk can deadlock with a concurrent sale on MySQL; the database picks a victim and the chunk is retried
+    private <T> T inChunkTransaction(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Product sales summary chunk hit a lock conflict, retrying", e);
+            }
+        }
+    }
+
+    // Summed sale events of one product
+    private static final class SaleDelta {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private int units;
+        private LocalDateTime latestCreated;
+        // An edited or deleted sale may have been the latest one
+        private boolean edited;
+
+        private void add(SaleChangedEvent event) {
+            revenue = revenue.add(event.revenueDelta());
+            units += event.quantityDelta();
+            if (event.type() != SaleChangedEvent.Type.CREATED) {
+                edited = true;
+            } else if (event.saleDate() != null && (latestCreated == null || event.saleDate().isAfter(latestCreated))) {
+                latestCreated = event.saleDate();
+            }
+        }
+    }
+}
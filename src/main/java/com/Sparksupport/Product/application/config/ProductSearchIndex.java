@@ -0,0 +1,657 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.dto.ProductDto;
+import com.sparksupport.product.application.dto.ProductSearchPage;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name and description, backing product search and
+ * typeahead without touching the database. Each product is a document with a dense doc id;
+ * every term maps to the ascending doc ids containing it, with a weight that counts name
+ * occurrences {@value #NAME_WEIGHT}x. Terms live in a sorted dictionary, so the last word of a
+ * query of at least {@value #MIN_PREFIX_LENGTH} characters also matches as a prefix. Its expansion
+ * is bounded both in terms and in the postings they bring, so a short prefix of common words costs
+ * no more than a bounded scan. Results are ranked with BM25-style term saturation and idf.
+ *
+ * <p>Loaded at startup and kept current from committed {@link ProductChangedEvent}s. JDBC-bypass
+ * writes (bulk repricing, imports) request a reload through {@link ProductCacheEvictor}; reloads
+ * and compactions build a fresh index in the background and replay the changes made meanwhile.
+ * Per instance: a change committed on another node shows up here after the next reload.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final float K1 = 1.2f;
+    // Probe candidates by binary search when they are this many times fewer than the postings to scan
+    private static final int PROBE_RATIO = 16;
+    // BM25 term-frequency saturation for every possible weight
+    private static final float[] SATURATION = new float[256];
+
+    static {
+        for (int tf = 0; tf < SATURATION.length; tf++) {
+            SATURATION[tf] = tf * (K1 + 1) / (tf + K1);
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor rebuildExecutor;
+    private final int maxPrefixTerms;
+    private final int maxPrefixPostings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Scratch> scratches = new ConcurrentLinkedQueue<>();
+
+    // Guarded by lock: null until the first load completes; replayLog is non-null while a rebuild runs
+    private Index index;
+    private List<Consumer<Index>> replayLog;
+
+    // Guarded by itself: at most one rebuild runs, and requests made meanwhile collapse into one more
+    private final Object rebuildMonitor = new Object();
+    private boolean rebuildRunning;
+    private boolean reloadPending;
+    private boolean compactionPending;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                              @Qualifier("searchIndexExecutor") Executor rebuildExecutor,
+                              @Value("${app.search.max-prefix-terms:64}") int maxPrefixTerms,
+                              @Value("${app.search.max-prefix-postings:100000}") int maxPrefixPostings) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildExecutor = rebuildExecutor;
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.maxPrefixPostings = maxPrefixPostings;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild(true);
+    }
+
+    /**
+     * Reload from the database in the background, after writes the change events do not cover.
+     */
+    public void requestReload() {
+        schedule(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        Integer productId = event.productId();
+        switch (event.type()) {
+            case DELETED -> apply(current -> current.remove(productId));
+            case STOCK_CHANGED -> apply(current -> current.updateQuantity(productId, event.quantity()));
+            // The committed entity is still in the transaction's persistence context, so this is no query
+            case CREATED, UPDATED -> productRepository.findById(productId)
+                    .filter(product -> !Boolean.TRUE.equals(product.getIsDeleted()))
+                    .map(product -> new ProductDto(product.getId(), product.getName(), product.getDescription(),
+                            product.getPrice(), product.getQuantity()))
+                    .ifPresent(product -> apply(current -> current.put(product)));
+        }
+    }
+
+    /**
+     * Products matching every word of the query (the last one also as a prefix unless it is a
+     * single character), best first. Counts for prefix queries cover the expanded completions only.
+     */
+    public ProductSearchPage search(String query, int pageNumber, int listSize) {
+        List<String> words = new ArrayList<>();
+        tokenize(query, words::add);
+        boolean lastIsPrefix = !query.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (index == null || words.isEmpty()) {
+                return new ProductSearchPage(0, pageNumber, listSize, List.of());
+            }
+            Scratch scratch = borrowScratch(index.docCount);
+            try {
+                return index.search(words, lastIsPrefix, pageNumber, listSize, maxPrefixTerms, maxPrefixPostings, scratch);
+            } finally {
+                scratch.reset();
+                scratches.offer(scratch);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexed words starting with the prefix, most common first, for typeahead.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> words = new ArrayList<>();
+        tokenize(prefix, words::add);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index == null ? List.of() : index.suggest(words.get(words.size() - 1), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Index> mutation) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (replayLog != null) {
+                replayLog.add(mutation);
+            }
+            if (index == null) {
+                return;
+            }
+            mutation.accept(index);
+            compact = index.needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            schedule(false);
+        }
+    }
+
+    private void schedule(boolean reload) {
+        synchronized (rebuildMonitor) {
+            if (reload) {
+                reloadPending = true;
+            } else {
+                compactionPending = true;
+            }
+            if (rebuildRunning) {
+                return;
+            }
+            rebuildRunning = true;
+        }
+        rebuildExecutor.execute(this::runPendingRebuilds);
+    }
+
+    private void runPendingRebuilds() {
+        while (true) {
+            boolean reload;
+            synchronized (rebuildMonitor) {
+                if (!reloadPending && !compactionPending) {
+                    rebuildRunning = false;
+                    return;
+                }
+                reload = reloadPending;
+                reloadPending = false;
+                compactionPending = false;
+            }
+            try {
+                rebuild(reload);
+            } catch (RuntimeException e) {
+                log.error("Product search index rebuild failed", e);
+            }
+        }
+    }
+
+    /**
+     * Build a fresh index from the database (reload) or from the live documents (compaction),
+     * replay the changes applied to the old one in the meantime, and swap it in.
+     */
+    private void rebuild(boolean reload) {
+        long start = System.currentTimeMillis();
+        Index current;
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+            current = index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            if (reload || current == null) {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductDto> products = productRepository.streamActiveProductsForSearch()) {
+                        products.forEach(fresh::put);
+                    }
+                });
+            } else {
+                lock.readLock().lock();
+                try {
+                    current.forEachLive(fresh::put);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replayLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            replayLog.forEach(mutation -> mutation.accept(fresh));
+            replayLog = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index {} with {} products and {} terms in {} ms", reload ? "loaded" : "compacted",
+                fresh.liveCount(), fresh.terms.size(), System.currentTimeMillis() - start);
+    }
+
+    private Scratch borrowScratch(int docCount) {
+        Scratch scratch = scratches.poll();
+        if (scratch == null || scratch.matched.length < docCount) {
+            scratch = new Scratch(Math.max(1024, docCount + docCount / 4));
+        }
+        return scratch;
+    }
+
+    /**
+     * Split text into lowercase runs of letters and digits.
+     */
+    static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                sink.accept(token.toString());
+                token.setLength(0);
+            }
+        }
+    }
+
+    // Single letters carry no signal as whole words or search prefixes; suggestions still complete them
+    private static boolean indexable(String term) {
+        return term.length() > 1 || Character.isDigit(term.charAt(0));
+    }
+
+    /** Ascending doc ids of one term, each with its weight (name hits count NAME_WEIGHT, description hits 1). */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        private void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = (byte) Math.min(weight, 255);
+            size++;
+        }
+    }
+
+    /** Per-search working memory, one slot per doc id; pooled so searches do not allocate it. */
+    private static final class Scratch {
+        private final int[] matched;
+        private final float[] scores;
+        private int[] touched = new int[1024];
+        private int touchedCount;
+
+        private Scratch(int capacity) {
+            this.matched = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        private void touch(int doc) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = doc;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                matched[touched[i]] = 0;
+                scores[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    /** Not thread-safe: guarded by the enclosing read/write lock. */
+    private static final class Index {
+        private final NavigableMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Integer, Integer> docByProduct = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private ProductDto[] docs = new ProductDto[1024];
+        private int[] productIds = new int[1024];
+        private int docCount;
+        private int deletedCount;
+
+        private int liveCount() {
+            return docCount - deletedCount;
+        }
+
+        private void put(ProductDto product) {
+            Integer existing = docByProduct.get(product.getId());
+            if (existing != null) {
+                ProductDto previous = docs[existing];
+                if (Objects.equals(previous.getName(), product.getName())
+                        && Objects.equals(previous.getDescription(), product.getDescription())) {
+                    // Same text: only the displayed fields change, no reindexing needed
+                    docs[existing] = product;
+                    return;
+                }
+                markDeleted(existing);
+            }
+
+            int doc = docCount++;
+            if (doc == docs.length) {
+                docs = Arrays.copyOf(docs, doc * 2);
+                productIds = Arrays.copyOf(productIds, doc * 2);
+            }
+            docs[doc] = product;
+            productIds[doc] = product.getId();
+            docByProduct.put(product.getId(), doc);
+
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(product.getName(), term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            tokenize(product.getDescription(), term -> weights.merge(term, 1, Integer::sum));
+            weights.forEach((term, weight) -> {
+                if (indexable(term)) {
+                    terms.computeIfAbsent(term, t -> new Postings()).add(doc, weight);
+                }
+            });
+        }
+
+        private void remove(Integer productId) {
+            Integer doc = docByProduct.remove(productId);
+            if (doc != null) {
+                markDeleted(doc);
+            }
+        }
+
+        private void updateQuantity(Integer productId, Integer quantity) {
+            Integer doc = docByProduct.get(productId);
+            if (doc != null && quantity != null) {
+                ProductDto previous = docs[doc];
+                docs[doc] = new ProductDto(previous.getId(), previous.getName(), previous.getDescription(),
+                        previous.getPrice(), quantity);
+            }
+        }
+
+        private void markDeleted(int doc) {
+            deleted.set(doc);
+            docs[doc] = null;
+            deletedCount++;
+        }
+
+        // Dead postings slow every search that scans them; rebuild once they are a quarter of the index
+        private boolean needsCompaction() {
+            return deletedCount > 10_000 && deletedCount * 4L > docCount;
+        }
+
+        private void forEachLive(Consumer<ProductDto> sink) {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (docs[doc] != null) {
+                    sink.accept(docs[doc]);
+                }
+            }
+        }
+
+        private List<String> suggest(String prefix, int limit) {
+            PriorityQueue<Map.Entry<String, Postings>> top = new PriorityQueue<>(
+                    Comparator.comparingInt((Map.Entry<String, Postings> entry) -> entry.getValue().size)
+                            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()));
+            for (Map.Entry<String, Postings> entry : prefixRange(prefix).entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<String> words = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                words.add(top.poll().getKey());
+            }
+            return words.reversed();
+        }
+
+        private NavigableMap<String, Postings> prefixRange(String prefix) {
+            return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        // The exact word, then the commonest completions while their postings fit the budget; a completion
+        // too common to fit is skipped, since its low idf would rank its matches last anyway
+        private List<Postings> expand(String prefix, int maxTerms, int maxPostings) {
+            Postings exact = terms.get(prefix);
+            List<Postings> completions = new ArrayList<>();
+            for (Postings postings : prefixRange(prefix).values()) {
+                if (postings != exact) {
+                    completions.add(postings);
+                }
+            }
+            completions.sort(Comparator.comparingInt((Postings p) -> p.size).reversed());
+
+            List<Postings> expanded = new ArrayList<>();
+            long budget = maxPostings;
+            if (exact != null) {
+                expanded.add(exact);
+                budget -= exact.size;
+            }
+            for (Postings postings : completions) {
+                if (expanded.size() == maxTerms) {
+                    break;
+                }
+                if (postings.size <= budget) {
+                    expanded.add(postings);
+                    budget -= postings.size;
+                }
+            }
+            return expanded;
+        }
+
+        private ProductSearchPage search(List<String> words, boolean lastIsPrefix, int pageNumber, int listSize,
+                                         int maxPrefixTerms, int maxPrefixPostings, Scratch scratch) {
+            List<List<Postings>> groups = new ArrayList<>();
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                if (lastIsPrefix && i == words.size() - 1 && word.length() >= MIN_PREFIX_LENGTH) {
+                    groups.add(expand(word, maxPrefixTerms, maxPrefixPostings));
+                } else if (indexable(word)) {
+                    Postings postings = terms.get(word);
+                    groups.add(postings != null ? List.of(postings) : List.of());
+                }
+            }
+            if (groups.isEmpty() || groups.stream().anyMatch(List::isEmpty)) {
+                return new ProductSearchPage(0, pageNumber, listSize, List.of());
+            }
+            // Rarest word first keeps the candidate set small for the rest
+            groups.sort(Comparator.comparingLong(ProductSearchIndex.Index::postingCount));
+
+            int live = Math.max(1, liveCount());
+            for (int g = 0; g < groups.size(); g++) {
+                List<Postings> group = groups.get(g);
+                if (g > 0 && (long) scratch.touchedCount * PROBE_RATIO < postingCount(group)) {
+                    probe(group, g, live, scratch);
+                } else {
+                    scan(group, g, live, scratch);
+                }
+            }
+            return page(groups.size(), pageNumber, listSize, scratch);
+        }
+
+        // Walk every posting: docs that matched all earlier words advance to this one
+        private void scan(List<Postings> group, int g, int live, Scratch scratch) {
+            for (Postings postings : group) {
+                float idf = idf(postings.size, live);
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    int matched = scratch.matched[doc];
+                    if (matched == g) {
+                        if (g == 0) {
+                            if (deleted.get(doc)) {
+                                continue;
+                            }
+                            scratch.touch(doc);
+                        }
+                        scratch.matched[doc] = g + 1;
+                        scratch.scores[doc] += score(idf, postings.weights[i]);
+                    } else if (matched == g + 1) {
+                        scratch.scores[doc] += score(idf, postings.weights[i]);
+                    }
+                }
+            }
+        }
+
+        // Few candidates left: look each one up in the postings instead of walking them
+        private void probe(List<Postings> group, int g, int live, Scratch scratch) {
+            for (Postings postings : group) {
+                float idf = idf(postings.size, live);
+                for (int t = 0; t < scratch.touchedCount; t++) {
+                    int doc = scratch.touched[t];
+                    int matched = scratch.matched[doc];
+                    if (matched == g || matched == g + 1) {
+                        int i = Arrays.binarySearch(postings.docs, 0, postings.size, doc);
+                        if (i >= 0) {
+                            scratch.matched[doc] = g + 1;
+                            scratch.scores[doc] += score(idf, postings.weights[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Bounded min-heap of doc ids keeps the best (pageNumber + 1) * listSize matches, worst at the root
+        private ProductSearchPage page(int groupCount, int pageNumber, int listSize, Scratch scratch) {
+            int capacity = (int) Math.min((long) (pageNumber + 1) * listSize, scratch.touchedCount);
+            int[] heap = new int[capacity];
+            int size = 0;
+            long total = 0;
+            for (int t = 0; t < scratch.touchedCount; t++) {
+                int doc = scratch.touched[t];
+                if (scratch.matched[doc] != groupCount) {
+                    continue;
+                }
+                total++;
+                if (size < capacity) {
+                    heap[size] = doc;
+                    siftUp(heap, size++, scratch.scores);
+                } else if (capacity > 0 && outranks(doc, heap[0], scratch.scores)) {
+                    heap[0] = doc;
+                    siftDown(heap, size, scratch.scores);
+                }
+            }
+
+            int from = pageNumber * listSize;
+            List<ProductDto> products = new ArrayList<>(Math.max(0, size - from));
+            // Popping yields worst first; only the requested page is copied out
+            for (int rank = size - 1; rank >= from; rank--) {
+                int worst = heap[0];
+                heap[0] = heap[rank];
+                siftDown(heap, rank, scratch.scores);
+                products.add(copyOf(docs[worst]));
+            }
+            return new ProductSearchPage(total, pageNumber, listSize, products.reversed());
+        }
+
+        // Higher score first, then the older product
+        private boolean outranks(int doc, int other, float[] scores) {
+            if (scores[doc] != scores[other]) {
+                return scores[doc] > scores[other];
+            }
+            return productIds[doc] < productIds[other];
+        }
+
+        private void siftUp(int[] heap, int i, float[] scores) {
+            int doc = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!outranks(heap[parent], doc, scores)) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = doc;
+        }
+
+        private void siftDown(int[] heap, int size, float[] scores) {
+            int doc = heap[0];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && outranks(heap[child], heap[child + 1], scores)) {
+                    child++;
+                }
+                if (!outranks(doc, heap[child], scores)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = doc;
+        }
+
+        // Callers get their own copy, with the defaults the other product endpoints fill in
+        private static ProductDto copyOf(ProductDto product) {
+            return ProductDto.builder()
+                    .id(product.getId())
+                    .name(Objects.requireNonNullElse(product.getName(), "No Name"))
+                    .description(Objects.requireNonNullElse(product.getDescription(), "No Description"))
+                    .price(Objects.requireNonNullElse(product.getPrice(), 0.0))
+                    .quantity(Objects.requireNonNullElse(product.getQuantity(), 0))
+                    .build();
+        }
+
+        private static long postingCount(List<Postings> group) {
+            long count = 0;
+            for (Postings postings : group) {
+                count += postings.size;
+            }
+            return count;
+        }
+
+        private static float idf(int documentFrequency, int live) {
+            return (float) Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        private static float score(float idf, byte weight) {
+            return idf * SATURATION[weight & 0xFF];
+        }
+    }
+}
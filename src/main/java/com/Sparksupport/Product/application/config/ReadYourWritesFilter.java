@@ -0,0 +1,39 @@
+package com.sparksupport.product.application.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Lets a client that just wrote data read it back consistently by sending
+ * {@code X-Read-Consistency: primary}; the whole request is then served by the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CONSISTENCY_HEADER = "X-Read-Consistency";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!"primary".equalsIgnoreCase(request.getHeader(CONSISTENCY_HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        DataSourceRoutingContext.enterPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRoutingContext.exitPrimary();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sparksupport.product.application.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final long NOT_REPLICATING = -1L;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaProperties properties;
+
+    // Reads stay on the primary until the first check succeeds
+    private volatile boolean replicaAvailable = false;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaProperties properties) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.properties = properties;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        boolean available;
+        try {
+            Long lagSeconds = readLagSeconds();
+            if (lagSeconds == null) {
+                // Replication configured but stopped
+                available = false;
+            } else {
+                available = lagSeconds <= properties.getMaxLagSeconds();
+            }
+            if (!available) {
+                log.debug("Replica lag {}s exceeds limit of {}s", lagSeconds, properties.getMaxLagSeconds());
+            }
+        } catch (DataAccessException e) {
+            log.debug("Replica lag check failed: {}", e.getMessage());
+            available = false;
+        }
+
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Replica is healthy again - routing read-only transactions to the replica");
+            } else {
+                log.warn("Replica unavailable or lagging - routing read-only transactions to the primary");
+            }
+        }
+        replicaAvailable = available;
+    }
+
+    private Long readLagSeconds() {
+        String lagQuery = properties.getLagQuery();
+        if (lagQuery == null || lagQuery.isBlank()) {
+            replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return 0L;
+        }
+
+        Long lag = replicaJdbcTemplate.query(lagQuery, rs -> rs.next()
+                ? rs.getObject(properties.getLagColumn(), Long.class)
+                : NOT_REPLICATING);
+
+        // Server is not a replica (e.g. local setup pointing at a standalone instance) - no lag to wait for
+        return lag != null && lag == NOT_REPLICATING ? 0L : lag;
+    }
+}
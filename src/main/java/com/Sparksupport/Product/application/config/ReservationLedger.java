@@ -0,0 +1,161 @@
+package com.sparksupport.product.application.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * In-memory ledger of stock held against products: reservation holds (keyed by reservation id)
+ * and short-lived holds taken by sales while their transaction is in flight.
+ * Per-product totals live in lock stripes, so availability checks for different products do not
+ * contend and the check-and-hold step is atomic per product without a database round trip.
+ * The ledger is per instance; stock_reservation rows are the durable copy it is rebuilt from.
+ */
+@Component
+public class ReservationLedger {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Map<Object, Hold> holds = new ConcurrentHashMap<>();
+
+    public ReservationLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Holds {@code quantity} units if {@code onHand} minus everything already held covers it.
+     */
+    public boolean tryHold(Object key, int productId, int quantity, int onHand) {
+        return tryHold(key, productId, quantity, () -> onHand);
+    }
+
+    /**
+     * As {@link #tryHold(Object, int, int, int)}, reading on-hand stock inside the product's lock so
+     * a live count (the in-memory inventory engine) is checked atomically with the holds.
+     */
+    public boolean tryHold(Object key, int productId, int quantity, IntSupplier onHand) {
+        Stripe stripe = stripe(productId);
+        synchronized (stripe) {
+            int held = stripe.held.getOrDefault(productId, 0);
+            if (onHand.getAsInt() - held < quantity || holds.containsKey(key)) {
+                return false;
+            }
+            stripe.held.put(productId, held + quantity);
+            holds.put(key, new Hold(productId, quantity));
+            return true;
+        }
+    }
+
+    /**
+     * Holds stock for the current transaction and drops the hold once it completes. By then a
+     * committed sale is reflected in the product quantity, so the stock stays covered throughout.
+     */
+    public boolean holdForTransaction(int productId, int quantity, int onHand) {
+        Object key = new Object();
+        if (!tryHold(key, productId, quantity, onHand)) {
+            return false;
+        }
+        afterCompletion(committed -> release(key));
+        return true;
+    }
+
+    /**
+     * Re-creates a hold read back from the database without checking stock.
+     */
+    public void restore(Object key, int productId, int quantity) {
+        Stripe stripe = stripe(productId);
+        synchronized (stripe) {
+            if (holds.putIfAbsent(key, new Hold(productId, quantity)) == null) {
+                stripe.held.merge(productId, quantity, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Moves a hold to a new key; returns false if {@code from} is not held (released or expired).
+     */
+    public boolean transfer(Object from, Object to) {
+        Hold hold = holds.get(from);
+        if (hold == null) {
+            return false;
+        }
+        synchronized (stripe(hold.productId)) {
+            if (!holds.remove(from, hold)) {
+                return false;
+            }
+            holds.put(to, hold);
+            return true;
+        }
+    }
+
+    /**
+     * Drops a hold; returns false if it was not held.
+     */
+    public boolean release(Object key) {
+        Hold hold = holds.get(key);
+        if (hold == null) {
+            return false;
+        }
+        Stripe stripe = stripe(hold.productId);
+        synchronized (stripe) {
+            if (!holds.remove(key, hold)) {
+                return false;
+            }
+            stripe.held.computeIfPresent(hold.productId, (id, held) -> held == hold.quantity ? null : held - hold.quantity);
+            return true;
+        }
+    }
+
+    public boolean isHeld(Object key) {
+        return holds.containsKey(key);
+    }
+
+    public int held(int productId) {
+        Stripe stripe = stripe(productId);
+        synchronized (stripe) {
+            return stripe.held.getOrDefault(productId, 0);
+        }
+    }
+
+    public int available(int productId, int onHand) {
+        return Math.max(0, onHand - held(productId));
+    }
+
+    public int holdCount() {
+        return holds.size();
+    }
+
+    // Runs the callback once the surrounding transaction ends (immediately when there is none)
+    public static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private Stripe stripe(int productId) {
+        return stripes[Math.floorMod(productId, STRIPES)];
+    }
+
+    private static final class Stripe {
+        private final Map<Integer, Integer> held = new HashMap<>();
+    }
+
+    private record Hold(int productId, int quantity) {
+    }
+}
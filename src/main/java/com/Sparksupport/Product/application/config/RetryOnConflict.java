@@ -0,0 +1,17 @@
+package com.sparksupport.product.application.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional service method when its commit loses an optimistic-lock race,
+ * following {@link ConflictRetryPolicy}. The method must be safe to repeat after a rollback.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
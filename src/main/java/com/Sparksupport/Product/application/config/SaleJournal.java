@@ -0,0 +1,238 @@
+package com.sparksupport.product.application.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.dto.SaleJournalEntry;
+import com.sparksupport.product.application.dto.SaleJournalPage;
+import com.sparksupport.product.application.event.SaleChangedEvent;
+import com.sparksupport.product.application.model.OutboxEvent;
+import com.sparksupport.product.application.util.MappedJournal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary journal of committed sale changes, kept in memory-mapped segment files
+ * (see {@link MappedJournal}). Consumers replay it from an offset to rebuild revenue rollups or
+ * caches without rescanning the sale table, and tail it by polling from their last nextOffset.
+ * <p>
+ * The journal tails the outbox rather than the sale transactions: sale events are appended in
+ * relay sequence order, so nothing runs after a sale commits and a sale whose append failed or was
+ * lost in a crash is appended on the next poll. Each record carries its sequence, and a cursor file
+ * next to the segments records how far the outbox has been journaled once the records are synced,
+ * so a retry or restart neither skips nor repeats events. Sequences are assigned by the outbox
+ * relay, so the journal follows it by a relay poll.
+ */
+@Component
+@Slf4j
+public class SaleJournal implements DisposableBean {
+
+    private static final byte FORMAT_VERSION = 2;
+    // Records written before the outbox sequence was stored
+    private static final byte UNSEQUENCED_VERSION = 1;
+    // version, type, seq, saleId, productId, quantity, quantityDelta, price, saleDate (seconds + nanos), occurredAt
+    private static final int RECORD_SIZE = 1 + 1 + 8 + 4 + 4 + 4 + 4 + 8 + 8 + 4 + 8;
+    private static final int PRICE_SCALE = 4;
+    private static final SaleChangedEvent.Type[] TYPES = SaleChangedEvent.Type.values();
+
+    private static final String CURSOR_FILE = "sales.cursor";
+    private static final String MAX_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM outbox_event";
+    // Sequences are gap-free, so a range of POLL_BATCH sequences holds at most that many events
+    private static final String RELAYED_SALES_SQL =
+            "SELECT seq, payload FROM outbox_event WHERE seq > ? AND seq <= ? " +
+            "AND aggregate_type = '" + OutboxEvent.SALE + "' ORDER BY seq";
+    private static final int POLL_BATCH = 1000;
+
+    private final MappedJournal journal;
+    private final Duration retention;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path cursorFile;
+    // Only the poller moves these: the outbox sequence journaled up to, and the last one appended.
+    // journaledSeq is -1 until the first poll when the journal has never followed the outbox.
+    private long journaledSeq;
+    private long appendedSeq;
+
+    public SaleJournal(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                       @Value("${app.journal.dir:sale-journal}") String directory,
+                       @Value("${app.journal.segment-size-mb:64}") int segmentSizeMb,
+                       @Value("${app.journal.retention-hours:168}") long retentionHours) {
+        this.journal = new MappedJournal(Path.of(directory), "sales", segmentSizeMb * 1024 * 1024);
+        this.retention = Duration.ofHours(retentionHours);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.cursorFile = Path.of(directory, CURSOR_FILE);
+        MappedJournal.Entry last = journal.lastEntry();
+        this.appendedSeq = last != null ? seqOf(last.payload()) : 0;
+        this.journaledSeq = Math.max(readCursor(), appendedSeq > 0 ? appendedSeq : -1);
+        log.info("Sale journal open in {} at offsets {}..{}, outbox seq {}", directory, journal.startOffset(),
+                journal.endOffset(), journaledSeq);
+    }
+
+    /**
+     * Appends relayed sale events after the cursor, syncs them and then moves the cursor. A failed
+     * poll is retried from the cursor; events appended before the failure are not appended again.
+     */
+    @Scheduled(fixedDelayString = "${app.journal.poll-interval-ms:250}")
+    public void appendRelayed() {
+        try {
+            long relayed = jdbcTemplate.queryForObject(MAX_SEQ_SQL, Long.class);
+            if (journaledSeq < 0) {
+                // A new journal starts with the events relayed from now on, like a new change feed subscriber
+                journaledSeq = relayed;
+                writeCursor(relayed);
+            }
+            while (journaledSeq < relayed) {
+                long upTo = Math.min(relayed, journaledSeq + POLL_BATCH);
+                jdbcTemplate.query(RELAYED_SALES_SQL, (RowCallbackHandler) rs -> {
+                    long seq = rs.getLong("seq");
+                    if (seq > appendedSeq) {
+                        journal.append(encode(seq, readSale(rs.getString("payload"))));
+                        appendedSeq = seq;
+                    }
+                }, journaledSeq, upTo);
+                // Durable before the cursor moves past them
+                journal.sync();
+                writeCursor(upTo);
+                journaledSeq = upTo;
+            }
+        } catch (RuntimeException e) {
+            log.error("Journaling relayed sale events after outbox seq {} failed, will retry", journaledSeq, e);
+        }
+    }
+
+    public SaleJournalPage read(long fromOffset, int limit) {
+        List<SaleJournalEntry> entries = journal.read(fromOffset, limit).stream()
+                .map(SaleJournal::toEntry)
+                .toList();
+        long next = entries.isEmpty() ? Math.max(fromOffset, journal.startOffset()) : entries.get(entries.size() - 1).nextOffset();
+        return new SaleJournalPage(entries, next, journal.endOffset());
+    }
+
+    /**
+     * Feeds every journaled event from {@code fromOffset} to {@code consumer}; returns the offset to resume from.
+     */
+    public long replay(long fromOffset, Consumer<SaleJournalEntry> consumer) {
+        return journal.replay(fromOffset, entry -> consumer.accept(toEntry(entry)));
+    }
+
+    public long endOffset() {
+        return journal.endOffset();
+    }
+
+    // Group commit: one force covers every event appended since the previous sync
+    @Scheduled(fixedDelayString = "${app.journal.sync-interval-ms:50}")
+    public void sync() {
+        journal.sync();
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void applyRetention() {
+        int deleted = journal.deleteSegmentsOlderThan(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} sale journal segments older than {}", deleted, retention);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        journal.close();
+    }
+
+    private SaleChangedEvent readSale(String payload) {
+        try {
+            return objectMapper.readValue(payload, SaleChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read sale event " + payload, e);
+        }
+    }
+
+    private long readCursor() {
+        try {
+            byte[] bytes = Files.exists(cursorFile) ? Files.readAllBytes(cursorFile) : new byte[0];
+            // A cursor torn by a crash is ignored; the last record's sequence covers it
+            return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read sale journal cursor " + cursorFile, e);
+        }
+    }
+
+    private void writeCursor(long seq) {
+        try {
+            Files.write(cursorFile, ByteBuffer.allocate(Long.BYTES).putLong(seq).array(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write sale journal cursor " + cursorFile, e);
+        }
+    }
+
+    private static SaleJournalEntry toEntry(MappedJournal.Entry entry) {
+        return new SaleJournalEntry(entry.offset(), entry.nextOffset(), seqOf(entry.payload()), decode(entry.payload()));
+    }
+
+    static byte[] encode(long seq, SaleChangedEvent event) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.put(FORMAT_VERSION);
+        buffer.put((byte) event.type().ordinal());
+        buffer.putLong(seq);
+        buffer.putInt(event.saleId());
+        buffer.putInt(event.productId());
+        buffer.putInt(event.quantity());
+        buffer.putInt(event.quantityDelta());
+        buffer.putLong(event.salePrice() == null ? 0 : event.salePrice().setScale(PRICE_SCALE).unscaledValue().longValueExact());
+        LocalDateTime saleDate = event.saleDate();
+        buffer.putLong(saleDate.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(saleDate.getNano());
+        buffer.putLong(event.occurredAt().toEpochMilli());
+        return buffer.array();
+    }
+
+    // 0 for records written before the outbox sequence was stored
+    static long seqOf(byte[] payload) {
+        return version(payload) == FORMAT_VERSION ? ByteBuffer.wrap(payload).getLong(2) : 0;
+    }
+
+    static SaleChangedEvent decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte version = version(payload);
+        buffer.position(1);
+        SaleChangedEvent.Type type = TYPES[buffer.get()];
+        if (version == FORMAT_VERSION) {
+            buffer.getLong();
+        }
+        int saleId = buffer.getInt();
+        int productId = buffer.getInt();
+        int quantity = buffer.getInt();
+        int quantityDelta = buffer.getInt();
+        BigDecimal salePrice = BigDecimal.valueOf(buffer.getLong(), PRICE_SCALE);
+        LocalDateTime saleDate = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        Instant occurredAt = Instant.ofEpochMilli(buffer.getLong());
+        return new SaleChangedEvent(type, saleId, productId, quantity, quantityDelta, salePrice, saleDate, occurredAt);
+    }
+
+    private static byte version(byte[] payload) {
+        byte version = payload[0];
+        if (version != FORMAT_VERSION && version != UNSEQUENCED_VERSION) {
+            throw new IllegalStateException("Unsupported sale journal record version " + version);
+        }
+        return version;
+    }
+}
@@ -55,8 +55,12 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/sales/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/reports/**").permitAll()
+                // Multi-get is a read carried in a POST body - same access as GET /api/products
+                .requestMatchers(HttpMethod.POST, "/api/products/batch-get").permitAll()
                 // Health check endpoints (bypass IP filtering)
                 .requestMatchers("/api/products/healthcheck", "/actuator/health", "/health").permitAll()
+                // Sales summary check and rebuild
+                .requestMatchers("/actuator/salessummary/**").hasRole("ADMIN")
                 // Swagger UI endpoints
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
@@ -0,0 +1,23 @@
+package com.sparksupport.product.application.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls with equal arguments share one in-flight execution (see {@link SingleFlightAspect}).
+ * Only for read-only methods whose result may be shared between callers.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * How long, in milliseconds, a completed result may still be served while a fresh one is
+     * computed in the background. Supports property placeholders; 0 disables the window.
+     */
+    String staleWhileRevalidate() default "${app.single-flight.stale-while-revalidate-ms:0}";
+}
@@ -0,0 +1,167 @@
+package com.sparksupport.product.application.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringValueResolver;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collapses concurrent identical calls to {@link SingleFlight} methods: the first caller runs the
+ * method and everyone arriving while it runs waits for and shares its result (or exception).
+ * <p>
+ * With a stale-while-revalidate window, a result younger than the window is returned at once and
+ * a single background refresh replaces it, so a burst of dashboard refreshes costs at most one
+ * computation and nobody waits for it. Results are at most the window plus one computation old.
+ * Ordered outside the transaction interceptor, so the shared execution runs in its own transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class SingleFlightAspect implements EmbeddedValueResolverAware {
+
+    private final MeterRegistry meterRegistry;
+    private final Executor refreshExecutor;
+    private final Map<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<CallKey, Result> recent;
+    private final Map<Method, Long> windows = new ConcurrentHashMap<>();
+    private StringValueResolver valueResolver;
+
+    public SingleFlightAspect(MeterRegistry meterRegistry,
+                              @Qualifier("singleFlightExecutor") Executor refreshExecutor,
+                              @Value("${app.single-flight.max-results:10000}") int maxResults) {
+        this.meterRegistry = meterRegistry;
+        this.refreshExecutor = refreshExecutor;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CallKey, Result> eldest) {
+                return size() > maxResults;
+            }
+        };
+    }
+
+    @Override
+    public void setEmbeddedValueResolver(StringValueResolver resolver) {
+        this.valueResolver = resolver;
+    }
+
+    @Around("@annotation(singleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CallKey key = new CallKey(method, Arrays.asList(joinPoint.getArgs().clone()));
+        long window = windows.computeIfAbsent(method, m -> resolveWindow(singleFlight));
+
+        if (window > 0) {
+            Result result = recentResult(key);
+            if (result != null && System.currentTimeMillis() - result.computedAt() <= window) {
+                counter(method, "stale").increment();
+                refreshInBackground(key, joinPoint, window);
+                return result.value();
+            }
+        }
+
+        CompletableFuture<Object> attempt = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, attempt);
+        if (running != null) {
+            counter(method, "collapsed").increment();
+            return await(running);
+        }
+        counter(method, "executed").increment();
+        return execute(key, joinPoint, attempt, window);
+    }
+
+    private Object execute(CallKey key, ProceedingJoinPoint joinPoint, CompletableFuture<Object> attempt,
+                           long window) throws Throwable {
+        try {
+            Object value = joinPoint.proceed();
+            if (window > 0) {
+                synchronized (recent) {
+                    recent.put(key, new Result(value, System.currentTimeMillis()));
+                }
+            }
+            attempt.complete(value);
+            return value;
+        } catch (Throwable e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, attempt);
+        }
+    }
+
+    private void refreshInBackground(CallKey key, ProceedingJoinPoint joinPoint, long window) {
+        CompletableFuture<Object> attempt = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, attempt) != null) {
+            return;
+        }
+        counter(key.method(), "refreshed").increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    execute(key, joinPoint, attempt, window);
+                } catch (Throwable e) {
+                    log.warn("Background refresh of {} failed", key.method().getName(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Too many refreshes queued; the next caller after the window recomputes in the foreground
+            attempt.completeExceptionally(e);
+            inFlight.remove(key, attempt);
+        }
+    }
+
+    private Result recentResult(CallKey key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    private long resolveWindow(SingleFlight singleFlight) {
+        String value = valueResolver != null
+                ? valueResolver.resolveStringValue(singleFlight.staleWhileRevalidate())
+                : singleFlight.staleWhileRevalidate();
+        return Long.parseLong(value.trim());
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private Counter counter(Method method, String outcome) {
+        return Counter.builder("single.flight.calls")
+                .tag("method", method.getDeclaringClass().getSimpleName() + "." + method.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record CallKey(Method method, List<Object> args) {
+    }
+
+    private record Result(Object value, long computedAt) {
+    }
+}
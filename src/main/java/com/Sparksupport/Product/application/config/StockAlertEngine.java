@@ -0,0 +1,282 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.dto.StockAlert;
+import com.sparksupport.product.application.dto.StockAlert.Level;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.model.StockAlertThreshold;
+import com.sparksupport.product.application.repository.ProductRepository;
+import com.sparksupport.product.application.repository.StockAlertThresholdRepository;
+import com.sparksupport.product.application.service.StockAlertSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Low-stock and stock-out alerting, evaluated on every committed stock change
+ * ({@link ProductChangedEvent}) and on every committed import chunk.
+ * A product is LOW at or below its threshold (per product, or app.stock-alerts.default-threshold)
+ * and OUT at zero. LOW only clears once stock rises above threshold + hysteresis, so sales and
+ * restocks around the threshold do not flap; OUT becomes LOW as soon as any stock is back.
+ *
+ * <p>Only products in alert are tracked. Level changes are queued and handed to every
+ * {@link StockAlertSink} in batches. Current levels are seeded at startup from the products at or
+ * below the highest threshold, without delivering them again.
+ *
+ * <p>A change is evaluated at the committed stock rather than the stock its event carries: the
+ * inventory engine's count when it has the product loaded, otherwise a primary-key read once the
+ * change has committed. The read and the evaluation hold a lock striped by product, so when two
+ * changes to a product are evaluated concurrently the later read decides, whatever order their
+ * listeners run in.
+ */
+@Component
+@Slf4j
+public class StockAlertEngine {
+
+    private static final int EVALUATION_STRIPES = 64;
+
+    private final StockAlertThresholdRepository thresholdRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryReadTransaction;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final List<StockAlertSink> sinks;
+    private final int defaultThreshold;
+    private final int hysteresis;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final Map<Integer, Integer> thresholds = new ConcurrentHashMap<>();
+    private final Map<Integer, StockAlert> active = new ConcurrentHashMap<>();
+    private final Queue<StockAlert> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Lock[] evaluationLocks = new Lock[EVALUATION_STRIPES];
+
+    public StockAlertEngine(StockAlertThresholdRepository thresholdRepository, ProductRepository productRepository,
+                            PlatformTransactionManager transactionManager, List<StockAlertSink> sinks,
+                            Optional<InventoryEngine> inventoryEngine,
+                            @Value("${app.stock-alerts.default-threshold:10}") int defaultThreshold,
+                            @Value("${app.stock-alerts.hysteresis:5}") int hysteresis,
+                            @Value("${app.stock-alerts.batch-size:500}") int batchSize,
+                            @Value("${app.stock-alerts.max-pending:10000}") int maxPending) {
+        this.thresholdRepository = thresholdRepository;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Not read-only: a replica may trail the commit being evaluated. A new transaction, since
+        // after-commit listeners still run inside the completed one
+        this.primaryReadTransaction = new TransactionTemplate(transactionManager);
+        this.primaryReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.inventoryEngine = inventoryEngine;
+        this.sinks = sinks;
+        this.defaultThreshold = defaultThreshold;
+        this.hysteresis = hysteresis;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        for (int i = 0; i < EVALUATION_STRIPES; i++) {
+            evaluationLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (StockAlertThreshold threshold : thresholdRepository.findAll()) {
+                thresholds.put(threshold.getProductId(), threshold.getThreshold());
+            }
+            int highest = thresholds.values().stream().reduce(defaultThreshold, Math::max);
+            Instant now = Instant.now();
+            for (Object[] row : productRepository.findStockAtOrBelow(highest)) {
+                Integer productId = (Integer) row[0];
+                int quantity = (Integer) row[1];
+                Level level = levelFor(Level.OK, quantity, thresholdFor(productId));
+                if (level != Level.OK) {
+                    active.put(productId, new StockAlert(productId, level, Level.OK, quantity, thresholdFor(productId), now));
+                }
+            }
+        });
+        log.info("Stock alerts loaded: {} product thresholds, {} products in alert", thresholds.size(), active.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ProductChangedEvent.Type.DELETED && event.quantity() == null) {
+            return;
+        }
+        Integer productId = event.productId();
+        Lock lock = evaluationLock(productId);
+        lock.lock();
+        try {
+            Integer quantity = event.type() == ProductChangedEvent.Type.DELETED ? null : committedStock(productId);
+            if (quantity != null) {
+                evaluate(productId, quantity);
+            } else {
+                clear(productId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evaluates the products an import chunk wrote, once the chunk has committed. Imported ids are
+     * only known after the read, so every stripe is held for it.
+     */
+    public void importCommitted(Collection<String> names) {
+        for (Lock lock : evaluationLocks) {
+            lock.lock();
+        }
+        try {
+            List<Object[]> rows = primaryReadTransaction.execute(status -> productRepository.findStockByNames(names));
+            for (Object[] row : rows) {
+                Integer productId = (Integer) row[0];
+                Integer loaded = inventoryEngine.map(engine -> engine.loadedStock(productId)).orElse(null);
+                evaluate(productId, loaded != null ? loaded : (Integer) row[1]);
+            }
+        } finally {
+            for (int i = evaluationLocks.length - 1; i >= 0; i--) {
+                evaluationLocks[i].unlock();
+            }
+        }
+    }
+
+    // The engine's count when loaded, since the database trails it; otherwise the primary. Null once deleted
+    private Integer committedStock(Integer productId) {
+        Integer loaded = inventoryEngine.map(engine -> engine.loadedStock(productId)).orElse(null);
+        if (loaded != null) {
+            return loaded;
+        }
+        List<Object[]> rows = primaryReadTransaction.execute(status -> productRepository.findStockByIds(List.of(productId)));
+        return rows.isEmpty() ? null : (Integer) rows.get(0)[1];
+    }
+
+    private Lock evaluationLock(Integer productId) {
+        return evaluationLocks[Math.floorMod(productId, EVALUATION_STRIPES)];
+    }
+
+    private void clear(Integer productId) {
+        StockAlert cleared = active.remove(productId);
+        if (cleared != null) {
+            enqueue(new StockAlert(productId, Level.OK, cleared.level(), cleared.quantity(),
+                    cleared.threshold(), Instant.now()));
+        }
+    }
+
+    /**
+     * Applies a committed threshold change, or a reset to the default when {@code threshold} is null,
+     * and re-evaluates the product at its committed stock.
+     */
+    public void thresholdChanged(Integer productId, Integer threshold) {
+        Lock lock = evaluationLock(productId);
+        lock.lock();
+        try {
+            if (threshold == null) {
+                thresholds.remove(productId);
+            } else {
+                thresholds.put(productId, threshold);
+            }
+            Integer quantity = committedStock(productId);
+            if (quantity != null) {
+                evaluate(productId, quantity);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int thresholdFor(Integer productId) {
+        return thresholds.getOrDefault(productId, defaultThreshold);
+    }
+
+    public int defaultThreshold() {
+        return defaultThreshold;
+    }
+
+    /** Products currently in alert, stock-outs first. */
+    public List<StockAlert> activeAlerts() {
+        List<StockAlert> alerts = new ArrayList<>(active.values());
+        alerts.sort(Comparator.comparing(StockAlert::level).reversed().thenComparing(StockAlert::productId));
+        return alerts;
+    }
+
+    private void evaluate(Integer productId, int quantity) {
+        int threshold = thresholdFor(productId);
+        StockAlert[] changed = new StockAlert[1];
+        active.compute(productId, (id, current) -> {
+            Level previous = current != null ? current.level() : Level.OK;
+            Level level = levelFor(previous, quantity, threshold);
+            if (level == previous) {
+                // Same level: only refresh the stock shown for an active alert
+                return current == null ? null
+                        : new StockAlert(id, level, current.previousLevel(), quantity, threshold, current.since());
+            }
+            changed[0] = new StockAlert(id, level, previous, quantity, threshold, Instant.now());
+            return level == Level.OK ? null : changed[0];
+        });
+        if (changed[0] != null) {
+            enqueue(changed[0]);
+        }
+    }
+
+    private Level levelFor(Level previous, int quantity, int threshold) {
+        if (quantity <= 0) {
+            return Level.OUT;
+        }
+        if (quantity <= threshold || (previous != Level.OK && quantity <= threshold + hysteresis)) {
+            return Level.LOW;
+        }
+        return Level.OK;
+    }
+
+    private void enqueue(StockAlert alert) {
+        pending.offer(alert);
+        if (pendingCount.incrementAndGet() > maxPending && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+            log.warn("Stock alert queue full, dropped the oldest undelivered alert");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-alerts.delivery-interval-ms:5000}")
+    public void deliverPending() {
+        while (true) {
+            List<StockAlert> batch = new ArrayList<>();
+            StockAlert alert;
+            while (batch.size() < batchSize && (alert = pending.poll()) != null) {
+                batch.add(alert);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+            for (StockAlertSink sink : sinks) {
+                try {
+                    sink.deliver(batch);
+                } catch (RuntimeException e) {
+                    log.error("Stock alert sink {} failed on a batch of {} alerts", sink.getClass().getSimpleName(),
+                            batch.size(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sparksupport.product.application.controller;
+
+import com.sparksupport.product.application.config.ChangeFeedRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api/changes")
+@Tag(name = "Change Feed", description = "Stream of committed product and sale changes")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ChangeFeedController {
+
+    private final ChangeFeedRelay changeFeedRelay;
+
+    @Autowired
+    public ChangeFeedController(ChangeFeedRelay changeFeedRelay) {
+        this.changeFeedRelay = changeFeedRelay;
+    }
+
+    /**
+     * GET /api/changes
+     * Server-Sent Events stream of product and sale changes. Each event id is its sequence number;
+     * reconnect with Last-Event-ID (or ?from=) to resume after it. Without either only new changes are sent.
+     */
+    @GetMapping
+    @Operation(summary = "Stream changes", description = "Resumable SSE feed of product, stock and sale changes")
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long from) {
+        return changeFeedRelay.subscribe(lastEventId != null ? lastEventId : from);
+    }
+}
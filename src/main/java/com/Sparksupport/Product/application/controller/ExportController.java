@@ -1,15 +1,26 @@
 package com.sparksupport.product.application.controller;
 
 import com.sparksupport.product.application.dto.ProductResponse;
+import com.sparksupport.product.application.service.ReportExportService;
+import com.sparksupport.product.application.util.ContentCodingUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import com.sparksupport.product.application.service.ProductService;
 import com.sparksupport.product.application.service.ProductPdfService;
@@ -24,27 +35,92 @@ import static com.sparksupport.product.application.util.ProductServiceUtil.SUCCE
 @RequestMapping("/api/reports")
 public class ExportController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final ProductService productService;
     private final ProductPdfService productPdfService;
+    private final ReportExportService reportExportService;
+    private final int streamCompressionLevel;
 
     @Autowired
-    public ExportController(ProductService productService, ProductPdfService productPdfService) {
+    public ExportController(ProductService productService, ProductPdfService productPdfService,
+                            ReportExportService reportExportService,
+                            @Value("${app.compression.stream-level:1}") int streamCompressionLevel) {
         this.productService = productService;
         this.productPdfService = productPdfService;
+        this.reportExportService = reportExportService;
+        this.streamCompressionLevel = streamCompressionLevel;
+    }
+
+    // Streaming raw-data exports for BI - rows go from a JDBC cursor straight to the response
+    @GetMapping("/products.ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProductsNdjson(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamExport("products.ndjson", NDJSON, gzip, acceptEncoding,
+                out -> reportExportService.exportProducts(ReportExportService.Format.NDJSON, out));
+    }
+
+    @GetMapping("/products.csv")
+    public ResponseEntity<StreamingResponseBody> exportProductsCsv(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamExport("products.csv", CSV, gzip, acceptEncoding,
+                out -> reportExportService.exportProducts(ReportExportService.Format.CSV, out));
+    }
+
+    @GetMapping("/sales.ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSalesNdjson(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamExport("sales.ndjson", NDJSON, gzip, acceptEncoding,
+                out -> reportExportService.exportSales(ReportExportService.Format.NDJSON, from, to, out));
+    }
+
+    @GetMapping("/sales.csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSalesCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return streamExport("sales.csv", CSV, gzip, acceptEncoding,
+                out -> reportExportService.exportSales(ReportExportService.Format.CSV, from, to, out));
+    }
+
+    // Compressed here rather than by the connector so the level can favour CPU on large exports;
+    // ?gzip=true still forces gzip for clients that do not send Accept-Encoding
+    private ResponseEntity<StreamingResponseBody> streamExport(String fileName, MediaType mediaType, boolean gzip,
+                                                              String acceptEncoding, StreamingResponseBody export) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(mediaType);
+        String coding = gzip ? ContentCodingUtil.GZIP
+                : ContentCodingUtil.negotiate(acceptEncoding, ContentCodingUtil.GZIP, ContentCodingUtil.DEFLATE);
+        if (coding == null) {
+            return response.body(export);
+        }
+
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, coding)
+                .body(outputStream -> {
+                    try (OutputStream encoded = ContentCodingUtil.encoder(coding, outputStream, streamCompressionLevel)) {
+                        export.writeTo(encoded);
+                    }
+                });
     }
 
     //Sync end point for testing
     @GetMapping("/products/pdf/downloadSyncPdf")
     public ResponseEntity<StreamingResponseBody> downloadProductTablePdf() throws Exception {
+        // Revenue comes from the sales summary, so the lazy sale lists are never loaded
         List<Product> products = productService.getAllProducts(org.springframework.data.domain.Pageable.unpaged()).getContent();
 
-        // Force initialization of lazy collections
-        for (Product product : products) {
-            if (product.getSaleList() != null) {
-                product.getSaleList().size();
-            }
-        }
-
         byte[] pdfBytes = productPdfService.generateProductTablePdf(products);
         StreamingResponseBody stream = outputStream -> outputStream.write(pdfBytes);
         return ResponseEntity.ok()
@@ -93,20 +169,33 @@ public class ExportController {
     }
 
     // Endpoint 3: Download file
+    // Reports are stored gzip-compressed: gzip clients get the stored bytes as-is, others a decompressing stream
     @GetMapping("/products/pdf/file/{jobId}")
-    public ResponseEntity<StreamingResponseBody> downloadPdfFile(@PathVariable String jobId) throws Exception {
+    public ResponseEntity<StreamingResponseBody> downloadPdfFile(
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws Exception {
 
-        // Check if file is ready and get the bytes
-        byte[] pdfBytes = productPdfService.getFileIfReady(jobId);
+        // Check if file is ready and get its path
+        Path compressedFile = productPdfService.getCompressedFileIfReady(jobId);
 
-        if (pdfBytes != null) {
+        if (compressedFile != null) {
             String fileName = "products-report-" + jobId + ".pdf";
-            StreamingResponseBody stream = outputStream -> outputStream.write(pdfBytes);
-
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(stream);
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_PDF);
+
+            if (ContentCodingUtil.negotiate(acceptEncoding, ContentCodingUtil.GZIP) != null) {
+                return response
+                        .header(HttpHeaders.CONTENT_ENCODING, ContentCodingUtil.GZIP)
+                        .contentLength(Files.size(compressedFile))
+                        .body(outputStream -> Files.copy(compressedFile, outputStream));
+            }
+            return response.body(outputStream -> {
+                try (InputStream pdf = new GZIPInputStream(Files.newInputStream(compressedFile), 64 * 1024)) {
+                    pdf.transferTo(outputStream);
+                }
+            });
         } else {
             // File not ready - return simple error message like sync endpoint
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
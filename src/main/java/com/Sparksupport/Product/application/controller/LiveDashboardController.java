@@ -0,0 +1,40 @@
+package com.sparksupport.product.application.controller;
+
+import com.sparksupport.product.application.config.LiveDashboardHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/live")
+@Tag(name = "Live Dashboard", description = "Pushed stock and revenue updates")
+@SecurityRequirement(name = "Bearer Authentication")
+public class LiveDashboardController {
+
+    private final LiveDashboardHub liveDashboardHub;
+
+    @Autowired
+    public LiveDashboardController(LiveDashboardHub liveDashboardHub) {
+        this.liveDashboardHub = liveDashboardHub;
+    }
+
+    /**
+     * GET /api/live?productIds=1,2&revenue=true
+     * Server-Sent Events stream replacing polling of product stock and revenue totals.
+     * The first "update" event is a snapshot; later ones carry only what changed, at most once per frame interval.
+     */
+    @GetMapping
+    @Operation(summary = "Stream live stock and revenue", description = "Coalesced push of stock and revenue for watched products and total revenue")
+    public SseEmitter streamLive(@RequestParam(required = false) List<Integer> productIds,
+                                @RequestParam(defaultValue = "false") boolean revenue) {
+        return liveDashboardHub.subscribe(productIds, revenue);
+    }
+}
@@ -1,13 +1,22 @@
 package com.sparksupport.product.application.controller;
 
 
+import com.sparksupport.product.application.config.ProductETagCache;
+import com.sparksupport.product.application.config.ProductResponseCache;
+import com.sparksupport.product.application.config.ProductSearchIndex;
+import com.sparksupport.product.application.dto.BatchGetItem;
+import com.sparksupport.product.application.dto.BatchGetRequest;
+import com.sparksupport.product.application.dto.BulkPriceUpdateDto;
 import com.sparksupport.product.application.dto.CreateProductDto;
+import com.sparksupport.product.application.dto.ProductFilter;
 import com.sparksupport.product.application.dto.ProductResponse;
 import com.sparksupport.product.application.dto.PaginationRequest;
 import com.sparksupport.product.application.dto.UpdateProductDto;
 import com.sparksupport.product.application.model.Product;
 import com.sparksupport.product.application.service.Create;
 import com.sparksupport.product.application.service.Patch;
+import com.sparksupport.product.application.service.ProductImportService;
+import com.sparksupport.product.application.service.ProductPricingService;
 import com.sparksupport.product.application.service.ProductService;
 import com.sparksupport.product.application.util.ProductServiceUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,18 +24,32 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
 
 import static com.sparksupport.product.application.util.ProductServiceUtil.*;
 
@@ -37,11 +60,26 @@ import static com.sparksupport.product.application.util.ProductServiceUtil.*;
 @Tag(name = "Products", description = "Product management APIs")
 public class ProductController {
 
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductPricingService productPricingService;
+    private final ProductETagCache productETagCache;
+    private final ProductResponseCache productResponseCache;
+    private final ProductSearchIndex productSearchIndex;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductPricingService productPricingService, ProductETagCache productETagCache,
+                             ProductResponseCache productResponseCache, ProductSearchIndex productSearchIndex) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productPricingService = productPricingService;
+        this.productETagCache = productETagCache;
+        this.productResponseCache = productResponseCache;
+        this.productSearchIndex = productSearchIndex;
     }
 
     /**
@@ -63,22 +101,116 @@ public class ProductController {
      * Retrieve all products with pagination support.
      * Returns a paginated list of all non-deleted products in the system.
      * Supports pagination parameters to control the number of results returned.
+     * Optional filters (price range, low-stock threshold, name prefix, minimum revenue) and a sort
+     * are pushed down to the database; combinations that no index can serve, such as two range
+     * filters or sorting a price range by name, are rejected with 400 instead of scanning the table.
+     * The page carries a collection ETag that changes with any product write; a matching
+     * If-None-Match is answered with 304 without querying the database.
      *
      * @param paginationRequest Contains pageNumber (starting from 0) and listSize (1-100)
+     * @param productFilter optional filters and sort
+     * @param ifNoneMatch ETag(s) the client already holds
      * @return ResponseEntity<?> containing paginated list of ProductDto objects
      */
     @GetMapping()
     @Operation(summary = "Get all products", description = "Returns paginated list of products")
-    public ResponseEntity<?> getAllProducts(@Valid @ModelAttribute PaginationRequest paginationRequest) {
-        Pageable pageable = PageRequest.of(paginationRequest.getPageNumber(), paginationRequest.getListSize());
-        return ProductResponse.success(SUCCESS, ProductServiceUtil.convertToProductDtoList(productService.getAllProducts(pageable)));
+    public ResponseEntity<?> getAllProducts(@Valid @ModelAttribute PaginationRequest paginationRequest,
+                                            @Valid @ModelAttribute ProductFilter productFilter,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Taken before the query: a write landing mid-read changes the tag, so the client revalidates again
+        String eTag = productETagCache.catalogTag(paginationRequest.getPageNumber() + "-" + paginationRequest.getListSize()
+                + (productFilter.isEmpty() ? "" : "-" + filterKey(productFilter)));
+        if (ProductETagCache.matches(ifNoneMatch, eTag)) {
+            return ProductResponse.notModified(eTag);
+        }
+        Page<Product> products = productFilter.isEmpty()
+                ? productService.getAllProducts(PageRequest.of(paginationRequest.getPageNumber(), paginationRequest.getListSize()))
+                : productService.getProducts(productFilter, paginationRequest.getPageNumber(), paginationRequest.getListSize());
+        return ProductResponse.success(SUCCESS, ProductServiceUtil.convertToProductDtoList(products), eTag);
+    }
+
+    // Listing tags of different filters must differ; base64url keeps arbitrary name prefixes inside the quoted tag
+    private static String filterKey(ProductFilter filter) {
+        String key = filter.getMinPrice() + "|" + filter.getMaxPrice() + "|" + filter.getMaxStock() + "|" + filter.getMinRevenue()
+                + "|" + filter.getNamePrefix() + "|" + filter.getSortBy() + "|" + filter.getDirection();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieve several products by id in one call, e.g. to resolve the line items of a cart.
+     * Results come back in request order, one per requested id, with found=false for ids that
+     * do not exist or were deleted. Cached products are served without a database round trip,
+     * the rest are loaded with a single IN query.
+     *
+     * @param batchGetRequest ids to fetch as a comma-separated list (1-100)
+     * @return ResponseEntity<?> containing one entry per requested id
+     */
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get products by ids", description = "Returns the requested products in request order, with not-found markers")
+    public ResponseEntity<?> getProductsByIds(@Valid @ModelAttribute BatchGetRequest batchGetRequest) {
+        return batchGetProducts(batchGetRequest);
+    }
+
+    /**
+     * Same as GET /api/products?ids=..., for id lists too long for a query string.
+     *
+     * @param batchGetRequest ids to fetch (1-100)
+     * @return ResponseEntity<?> containing one entry per requested id
+     */
+    @PostMapping("/batch-get")
+    @Operation(summary = "Get products by ids (body)", description = "Returns the requested products in request order, with not-found markers")
+    public ResponseEntity<?> batchGetProducts(@Valid @RequestBody BatchGetRequest batchGetRequest) {
+        List<Integer> ids = batchGetRequest.getIds();
+        return ProductResponse.success(SUCCESS, BatchGetItem.inRequestOrder(ids, productService.getProductsByIds(ids),
+                ProductServiceUtil::convertToProductDto));
+    }
+
+    /**
+     * Full-text search over product names and descriptions, best matches first.
+     * Every word of the query must match; the last one also matches as a prefix, so results
+     * follow the user while they type. Words in the name rank above words in the description,
+     * and rarer words above common ones. Served from an in-memory index without querying the
+     * database; products written on another instance appear after its next reload.
+     *
+     * @param q search text (1-200 characters)
+     * @param paginationRequest Contains pageNumber (starting from 0) and listSize (1-100)
+     * @return ResponseEntity<?> containing the total match count and the requested page of ProductDto objects
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search products", description = "Ranked full-text and prefix search over product name and description")
+    public ResponseEntity<?> searchProducts(@RequestParam @NotBlank(message = "q must not be blank")
+                                            @Size(max = 200, message = "q must be at most 200 characters") String q,
+                                            @Valid @ModelAttribute PaginationRequest paginationRequest) {
+        return ProductResponse.success(SUCCESS, productSearchIndex.search(q, paginationRequest.getPageNumber(),
+                paginationRequest.getListSize()));
+    }
+
+    /**
+     * Typeahead suggestions: indexed words starting with the given prefix, most common first.
+     *
+     * @param prefix start of the word being typed (1-50 characters)
+     * @param limit maximum number of suggestions (1-20)
+     * @return ResponseEntity<?> containing the suggested words
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest search words", description = "Returns indexed words starting with the prefix")
+    public ResponseEntity<?> suggestSearchWords(@RequestParam @NotBlank(message = "prefix must not be blank")
+                                                @Size(max = 50, message = "prefix must be at most 50 characters") String prefix,
+                                                @RequestParam(defaultValue = "10") @Min(value = 1, message = "limit must be >= 1")
+                                                @Max(value = 20, message = "limit must be <= 20") int limit) {
+        return ProductResponse.success(SUCCESS, productSearchIndex.suggest(prefix, limit));
     }
 
     /**
      * Retrieve a specific product by its unique identifier.
      * Returns detailed information about a single product including its current inventory status.
+     * The ETag is derived from the product version; when it is already known to be current a
+     * matching If-None-Match gets 304 before the database is touched, and otherwise the JSON
+     * already encoded for that version is written out as-is.
      *
      * @param productId The unique identifier of the product (must be >= 1)
+     * @param ifNoneMatch ETag(s) the client already holds
+     * @param acceptEncoding content codings the client accepts; gzip is served pre-compressed
      * @return ResponseEntity<?> containing ProductDto if found
      * @throws IllegalArgumentException if product ID is invalid
      * @throws com.sparksupport.product.application.exception.ProductNotFoundException if product with given ID doesn't exist
@@ -88,8 +220,26 @@ public class ProductController {
             summary = "Get product by ID",
             description = "Retrieve detailed information about a specific product by its unique identifier"
     )
-    public ResponseEntity<?> getProductById(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId) { //TODO: Max
-        return ProductResponse.success(SUCCESS, ProductServiceUtil.convertToProductDto(productService.getProductById(productId)));
+    public ResponseEntity<?> getProductById(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId, //TODO: Max
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String knownTag = productETagCache.productTag(productId);
+        if (ProductETagCache.matches(ifNoneMatch, knownTag)) {
+            return ProductResponse.notModified(knownTag);
+        }
+        ProductResponseCache.Encoded encoded = knownTag != null ? productResponseCache.get(knownTag) : null;
+        if (encoded != null) {
+            return ProductResponseCache.respond(encoded, acceptEncoding);
+        }
+        long loadedAt = productETagCache.generation();
+        Product product = productService.getProductById(productId);
+        String eTag = productETagCache.remember(product, loadedAt);
+        if (ProductETagCache.matches(ifNoneMatch, eTag)) {
+            return ProductResponse.notModified(eTag);
+        }
+        encoded = productResponseCache.encode(eTag,
+                new ProductResponse<>(HttpStatus.OK.value(), SUCCESS, ProductServiceUtil.convertToProductDto(product)));
+        return ProductResponseCache.respond(encoded, acceptEncoding);
     }
 
     /**
@@ -111,6 +261,81 @@ public class ProductController {
         return ProductResponse.created(CREATED, location);
     }
 
+    /**
+     * Bulk import products from a CSV (header: name,description,price,quantity) or NDJSON body.
+     * The body is streamed, each row is validated against the Create constraint group, names are
+     * de-duplicated within the import and rows are upserted by name in batched transactions.
+     * One NDJSON result line per row is streamed back as chunks commit, followed by a summary line.
+     * Requires ADMIN role authentication via JWT token.
+     *
+     * @param request  the raw request, read as a stream
+     * @param response NDJSON per-row result report
+     */
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON}, produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk import products", description = "Stream a CSV or NDJSON body of products and upsert them by name (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public void importProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ProductImportService.Format format = MediaType.parseMediaType(CSV).isCompatibleWith(contentType)
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        productImportService.importProducts(request.getInputStream(), format, response.getOutputStream());
+    }
+
+    /**
+     * Reprice many products at once, either with explicit prices per product or with a
+     * percentage rule over a set of products (or all of them). Prices and the matching
+     * price-history rows are written in one transaction as batched set-based statements.
+     * Requires ADMIN role authentication via JWT token.
+     *
+     * @param bulkPriceUpdateDto explicit changes, or percentage with productIds / allProducts
+     * @return ResponseEntity<?> containing the number of repriced products and ids not found
+     */
+    @PostMapping("/prices/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk price update", description = "Apply explicit prices or a percentage rule to many products (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<?> bulkUpdatePrices(@Valid @RequestBody BulkPriceUpdateDto bulkPriceUpdateDto) {
+        return ProductResponse.success(UPDATED, productPricingService.bulkUpdatePrices(bulkPriceUpdateDto));
+    }
+
+    /**
+     * Retrieve the price history of a product, newest first.
+     *
+     * @param productId The unique identifier of the product (must be >= 1)
+     * @param paginationRequest Contains pageNumber (starting from 0) and listSize (1-100)
+     * @return ResponseEntity<?> containing a page of price history entries
+     */
+    @GetMapping("/{productId}/prices")
+    @Operation(summary = "Get price history", description = "Returns the paginated price history of a product")
+    public ResponseEntity<?> getPriceHistory(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId,
+                                             @Valid @ModelAttribute PaginationRequest paginationRequest) {
+        Pageable pageable = PageRequest.of(paginationRequest.getPageNumber(), paginationRequest.getListSize());
+        return ProductResponse.success(SUCCESS, productPricingService.getPriceHistory(productId, pageable));
+    }
+
+    /**
+     * Retrieve the price a product had at a given time (defaults to now).
+     *
+     * @param productId The unique identifier of the product (must be >= 1)
+     * @param at ISO date-time to look the price up at
+     * @return ResponseEntity<?> containing the price, or 404 if no price was recorded by then
+     */
+    @GetMapping("/{productId}/price")
+    @Operation(summary = "Get price at time", description = "Returns the price in effect for a product at the given time")
+    public ResponseEntity<?> getPriceAt(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        LocalDateTime time = at != null ? at : LocalDateTime.now();
+        return productPricingService.getPriceAt(productId, time)
+                .<ResponseEntity<?>>map(price -> ProductResponse.success(SUCCESS, price))
+                .orElseGet(() -> ProductResponse.error(HttpStatus.NOT_FOUND,
+                        "No price recorded for product " + productId + " at " + time));
+    }
+
     /**
      * Partially update an existing product by its ID.
      * Allows administrators to modify specific fields of a product without affecting other fields.
@@ -0,0 +1,93 @@
+package com.sparksupport.product.application.controller;
+
+import com.sparksupport.product.application.dto.CreateReservationDto;
+import com.sparksupport.product.application.dto.ProductResponse;
+import com.sparksupport.product.application.dto.SaleDto;
+import com.sparksupport.product.application.model.Sale;
+import com.sparksupport.product.application.model.StockReservation;
+import com.sparksupport.product.application.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import static com.sparksupport.product.application.util.ProductServiceUtil.CREATED;
+import static com.sparksupport.product.application.util.ProductServiceUtil.SUCCESS;
+import static com.sparksupport.product.application.util.ProductServiceUtil.UPDATED;
+
+@RestController
+@RequestMapping("/api/reservations")
+@Validated
+@Tag(name = "Reservations", description = "Stock holds for checkout flows")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @Autowired
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * Hold stock for a product while a checkout completes.
+     * The hold expires after ttlSeconds unless it is confirmed or released first.
+     * Reservations carry no owner and confirming one records a sale, so like POST /api/sales
+     * they are admin only; availability stays open to any authenticated user.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reserve stock", description = "Hold product stock for a limited time (Admin only)")
+    public ResponseEntity<?> createReservation(@Valid @RequestBody CreateReservationDto request) {
+        return ProductResponse.created(CREATED, reservationService.createReservation(request));
+    }
+
+    @GetMapping("/{reservationId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get reservation", description = "Retrieve a reservation and its status (Admin only)")
+    public ResponseEntity<?> getReservation(@PathVariable @Min(value = 1, message = "reservationId must be >= 1") Long reservationId) {
+        return ProductResponse.success(SUCCESS, reservationService.getReservation(reservationId));
+    }
+
+    /**
+     * Confirm a reservation: records a sale of the held quantity at the current product price.
+     */
+    @PostMapping("/{reservationId}/confirm")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Confirm reservation", description = "Turn an active reservation into a sale (Admin only)")
+    public ResponseEntity<?> confirmReservation(@PathVariable @Min(value = 1, message = "reservationId must be >= 1") Long reservationId) {
+        Sale savedSale = reservationService.confirmReservation(reservationId);
+
+        SaleDto responseDto = new SaleDto();
+        responseDto.setId(savedSale.getId());
+        responseDto.setProductId(savedSale.getProductId());
+        responseDto.setQuantity(savedSale.getQuantity());
+        responseDto.setSaleDate(savedSale.getSaleDate());
+        responseDto.setSalePrice(savedSale.getSalePrice());
+        return ProductResponse.created(CREATED, responseDto);
+    }
+
+    @PostMapping("/{reservationId}/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Release reservation", description = "Give held stock back before the reservation expires (Admin only)")
+    public ResponseEntity<?> releaseReservation(@PathVariable @Min(value = 1, message = "reservationId must be >= 1") Long reservationId) {
+        StockReservation released = reservationService.releaseReservation(reservationId);
+        return ProductResponse.success(UPDATED, released);
+    }
+
+    /**
+     * Stock available to sell: on-hand quantity minus active holds, computed without a database
+     * round trip when the product is in the second-level cache.
+     */
+    @GetMapping("/availability/{productId}")
+    @Operation(summary = "Get available stock", description = "On-hand quantity minus reserved stock")
+    public ResponseEntity<?> getAvailability(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId) {
+        return ProductResponse.success(SUCCESS, reservationService.getAvailability(productId));
+    }
+}
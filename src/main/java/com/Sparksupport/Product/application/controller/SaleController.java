@@ -1,8 +1,10 @@
 package com.sparksupport.product.application.controller;
 
+import com.sparksupport.product.application.config.SaleJournal;
 import com.sparksupport.product.application.dto.*;
 import com.sparksupport.product.application.model.Sale;
 import com.sparksupport.product.application.service.Create;
+import com.sparksupport.product.application.service.IdempotencyService;
 import com.sparksupport.product.application.service.Patch;
 import com.sparksupport.product.application.service.SaleService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +22,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.function.Function;
+
 import static com.sparksupport.product.application.util.ProductServiceUtil.DELETED;
 import static com.sparksupport.product.application.util.ProductServiceUtil.SUCCESS;
 
@@ -28,25 +33,40 @@ import static com.sparksupport.product.application.util.ProductServiceUtil.SUCCE
 @Tag(name = "Sales", description = "Sales management operations")
 public class SaleController {
 
+    private static final int MAX_JOURNAL_PAGE = 1000;
+
     private final SaleService saleService;
+    private final SaleJournal saleJournal;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public SaleController(SaleService saleService) {
+    public SaleController(SaleService saleService, SaleJournal saleJournal, IdempotencyService idempotencyService) {
         this.saleService = saleService;
+        this.saleJournal = saleJournal;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Add a sale for a product.
-     * productId from path, sale details in body.
+     * productId from path, sale details in body. Clients that retry on timeouts should send an
+     * Idempotency-Key header: a retry with the same key replays the first response instead of selling again.
      */
     @PostMapping("/{productId}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Add a new sale", description = "Create a new sale for a product")
+    @Operation(summary = "Add a new sale", description = "Create a new sale for a product; supports the Idempotency-Key header")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<?> addSale(
             @PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId,
-            @RequestBody @Validated(Create.class) CreateSaleDto saleRequest) {
+            @RequestBody @Validated(Create.class) CreateSaleDto saleRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createSale(productId, saleRequest);
+        }
+        String fingerprint = "POST /api/sales/" + productId + " " + saleRequest.getQuantity() + " " + saleRequest.getSaleDate();
+        return idempotencyService.execute(idempotencyKey, fingerprint, () -> createSale(productId, saleRequest));
+    }
 
+    private ResponseEntity<?> createSale(Integer productId, CreateSaleDto saleRequest) {
         // Convert CreateSaleDto to Sale model
         Sale sale = new Sale();
         sale.setProductId(productId); // Use productId from path variable, not from request body
@@ -148,5 +168,47 @@ public class SaleController {
         return ProductResponse.success(SUCCESS, salesPage);
 
     }
-}
 
+    /**
+     * GET /api/sales?ids=1,2,3
+     * Get several sales by id in one call, in request order, with found=false for missing or deleted ones.
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get sales by ids", description = "Returns the requested sales in request order, with not-found markers (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<?> getSalesByIds(@Valid @ModelAttribute BatchGetRequest batchGetRequest) {
+        return batchGetSales(batchGetRequest);
+    }
+
+    /**
+     * POST /api/sales/batch-get
+     * Same as GET /api/sales?ids=..., with the ids in the body.
+     */
+    @PostMapping("/batch-get")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get sales by ids (body)", description = "Returns the requested sales in request order, with not-found markers (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<?> batchGetSales(@Valid @RequestBody BatchGetRequest batchGetRequest) {
+        List<Integer> ids = batchGetRequest.getIds();
+        return ProductResponse.success(SUCCESS, BatchGetItem.inRequestOrder(ids, saleService.getSalesByIds(ids),
+                Function.<Sale>identity()));
+    }
+
+    /**
+     * GET /api/sales/journal
+     * Read committed sale changes from the journal, starting at an offset.
+     * Pass the returned nextOffset as "from" to continue (tail) without missing or repeating events.
+     */
+    @GetMapping("/journal")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Read sale journal", description = "Returns sale create/update/delete events from an offset (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<?> readJournal(@RequestParam(defaultValue = "0") long from,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        if (from < 0 || limit < 1) {
+            throw new IllegalArgumentException("from must be >= 0 and limit >= 1");
+        }
+        return ProductResponse.success(SUCCESS, saleJournal.read(from, Math.min(limit, MAX_JOURNAL_PAGE)));
+    }
+}
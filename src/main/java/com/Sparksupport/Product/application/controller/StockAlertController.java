@@ -0,0 +1,70 @@
+package com.sparksupport.product.application.controller;
+
+import com.sparksupport.product.application.dto.ProductResponse;
+import com.sparksupport.product.application.dto.StockAlertThresholdDto;
+import com.sparksupport.product.application.service.StockAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import static com.sparksupport.product.application.util.ProductServiceUtil.SUCCESS;
+import static com.sparksupport.product.application.util.ProductServiceUtil.UPDATED;
+
+@RestController
+@RequestMapping("/api/stock-alerts")
+@Validated
+@Tag(name = "Stock alerts", description = "Low-stock and stock-out alerts")
+@SecurityRequirement(name = "Bearer Authentication")
+public class StockAlertController {
+
+    private final StockAlertService stockAlertService;
+
+    @Autowired
+    public StockAlertController(StockAlertService stockAlertService) {
+        this.stockAlertService = stockAlertService;
+    }
+
+    /**
+     * Products currently low on stock or out of stock, stock-outs first.
+     * Served from memory; each entry carries the latest known quantity and when the level was entered.
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Active stock alerts", description = "Products at or below their low-stock threshold")
+    public ResponseEntity<?> getActiveAlerts() {
+        return ProductResponse.success(SUCCESS, stockAlertService.getActiveAlerts());
+    }
+
+    @GetMapping("/thresholds/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get threshold", description = "Effective low-stock threshold of a product")
+    public ResponseEntity<?> getThreshold(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId) {
+        return ProductResponse.success(SUCCESS, stockAlertService.getThreshold(productId));
+    }
+
+    /**
+     * Override the default low-stock threshold for one product. The product is re-evaluated at
+     * once, so raising the threshold above its stock raises an alert without waiting for a sale.
+     */
+    @PutMapping("/thresholds/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Set threshold", description = "Set the low-stock threshold of a product")
+    public ResponseEntity<?> setThreshold(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId,
+                                          @Valid @RequestBody StockAlertThresholdDto thresholdDto) {
+        return ProductResponse.success(UPDATED, stockAlertService.setThreshold(productId, thresholdDto.getThreshold()));
+    }
+
+    @DeleteMapping("/thresholds/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reset threshold", description = "Return a product to the default low-stock threshold")
+    public ResponseEntity<?> resetThreshold(@PathVariable @Min(value = 1, message = "productId must be >= 1") Integer productId) {
+        return ProductResponse.success(UPDATED, stockAlertService.resetThreshold(productId));
+    }
+}
@@ -0,0 +1,16 @@
+package com.sparksupport.product.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDto {
+
+    private Integer productId;
+    private Integer onHand;
+    private Integer held;
+    private Integer available;
+}
@@ -0,0 +1,27 @@
+package com.sparksupport.product.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One slot of a multi-get response: the requested id, whether it resolved, and the item if it did.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchGetItem<T>(Integer id, boolean found, T data) {
+
+    /** One slot per requested id, in request order; ids missing from {@code found} become not-found markers. */
+    public static <E, T> List<BatchGetItem<T>> inRequestOrder(List<Integer> ids, Map<Integer, E> found,
+                                                              Function<E, T> converter) {
+        return ids.stream()
+                .map(id -> {
+                    E entity = found.get(id);
+                    return entity != null
+                            ? new BatchGetItem<>(id, true, converter.apply(entity))
+                            : new BatchGetItem<T>(id, false, null);
+                })
+                .toList();
+    }
+}
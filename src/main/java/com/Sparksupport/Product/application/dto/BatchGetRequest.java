@@ -0,0 +1,28 @@
+package com.sparksupport.product.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ids to resolve in one call; results come back in the same order")
+public class BatchGetRequest {
+
+    public static final int MAX_IDS = 100;
+
+    @NotEmpty(message = "ids must not be empty")
+    @Size(max = MAX_IDS, message = "At most 100 ids per request")
+    @Schema(description = "Ids to fetch, duplicates allowed", example = "[1, 2, 3]")
+    private List<@NotNull(message = "ids must not contain null") @Min(value = 1, message = "ids must be >= 1") Integer> ids;
+}
@@ -0,0 +1,54 @@
+package com.sparksupport.product.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk repricing request - either explicit prices, or a percentage rule applied to a product set")
+public class BulkPriceUpdateDto {
+
+    @Valid
+    @Size(max = 50000, message = "At most 50000 price changes per request")
+    @Schema(description = "Explicit new prices per product")
+    private List<PriceChange> changes;
+
+    @Schema(description = "Percentage to apply, e.g. 10 for +10% or -15 for -15%", example = "-10")
+    @DecimalMin(value = "-99.99", message = "Percentage must be greater than -100")
+    @Digits(integer = 5, fraction = 2, message = "Percentage can have only 2 fractions")
+    private BigDecimal percentage;
+
+    @Size(max = 50000, message = "At most 50000 product ids per request")
+    @Schema(description = "Products the percentage applies to")
+    private List<Integer> productIds;
+
+    @Schema(description = "Apply the percentage to every active product instead of productIds")
+    private boolean allProducts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceChange {
+
+        @NotNull(message = "productId is required")
+        @Min(value = 1, message = "productId must be >= 1")
+        private Integer productId;
+
+        @NotNull(message = "Price is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+        @Digits(integer = 10, fraction = 2, message = "Price can have only 10 digits and 2 fractions")
+        private Double price;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sparksupport.product.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPriceUpdateResult {
+
+    private int updated;
+    // Requested products that are missing or deleted (explicit changes only)
+    private List<Integer> notFound;
+    private LocalDateTime effectiveFrom;
+}
@@ -0,0 +1,18 @@
+package com.sparksupport.product.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.sparksupport.product.application.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A relayed change as sent on the change feed; seq is the resumable offset (SSE event id).
+ */
+public record ChangeEventDto(long seq, String aggregateType, Integer aggregateId, String eventType,
+                             @JsonRawValue String payload, LocalDateTime createdAt) {
+
+    public static ChangeEventDto from(OutboxEvent event) {
+        return new ChangeEventDto(event.getSeq(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt());
+    }
+}
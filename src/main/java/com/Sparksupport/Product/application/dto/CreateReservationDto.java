@@ -0,0 +1,29 @@
+package com.sparksupport.product.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to hold product stock during checkout")
+public class CreateReservationDto {
+
+    @NotNull(message = "productId is required")
+    @Min(value = 1, message = "productId must be >= 1")
+    private Integer productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @Min(value = 10, message = "ttlSeconds must be >= 10")
+    @Max(value = 3600, message = "ttlSeconds must be <= 3600")
+    @Schema(description = "How long the hold lasts; defaults to app.reservations.default-ttl-seconds", example = "900")
+    private Integer ttlSeconds;
+}
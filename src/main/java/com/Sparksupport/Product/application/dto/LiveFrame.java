@@ -0,0 +1,18 @@
+package com.sparksupport.product.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One coalesced live-dashboard update: only the products (and total revenue) that changed since
+ * the subscriber's previous frame, each with its latest values.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record LiveFrame(Map<Integer, ProductState> products, BigDecimal totalRevenue, Instant at) {
+
+    public record ProductState(int quantity, BigDecimal revenue, boolean deleted) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.sparksupport.product.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Optional product listing filters and sort; only index-backed combinations are accepted")
+public class ProductFilter {
+
+    @DecimalMin(value = "0.0", message = "minPrice must be >= 0")
+    @Schema(description = "Lowest price, inclusive", example = "10.0")
+    private Double minPrice;
+
+    @DecimalMin(value = "0.0", message = "maxPrice must be >= 0")
+    @Schema(description = "Highest price, inclusive", example = "50.0")
+    private Double maxPrice;
+
+    @Min(value = 0, message = "maxStock must be >= 0")
+    @Schema(description = "Low-stock threshold: products with at most this quantity", example = "5")
+    private Integer maxStock;
+
+    @DecimalMin(value = "0.0", message = "minRevenue must be >= 0")
+    @Schema(description = "Lowest lifetime revenue from non-deleted sales, inclusive", example = "1000")
+    private BigDecimal minRevenue;
+
+    @Size(min = 1, max = 100, message = "namePrefix must be between 1 and 100 characters")
+    @Schema(description = "Start of the product name", example = "Cof")
+    private String namePrefix;
+
+    @Pattern(regexp = "id|name|price|quantity", message = "sortBy must be one of id, name, price, quantity")
+    @Schema(description = "Sort field; defaults to the filtered field, or id without filters", example = "price")
+    private String sortBy;
+
+    @Pattern(regexp = "asc|desc", message = "direction must be asc or desc")
+    @Schema(description = "Sort direction", example = "asc", defaultValue = "asc")
+    private String direction = "asc";
+
+    @AssertTrue(message = "minPrice must be <= maxPrice")
+    @Schema(hidden = true)
+    public boolean isPriceRangeValid() {
+        return minPrice == null || maxPrice == null || minPrice <= maxPrice;
+    }
+
+    @Schema(hidden = true)
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && maxStock == null && minRevenue == null
+                && namePrefix == null && sortBy == null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sparksupport.product.application.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductImportSummary {
+
+    private long total;
+    private long upserted;
+    private long invalid;
+    private long duplicate;
+    private long failed;
+    private long elapsedMillis;
+}
@@ -1,5 +1,6 @@
 package com.sparksupport.product.application.dto;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -23,6 +24,21 @@ public class ProductResponse<T> {
         return ResponseEntity.ok(new ProductResponse<>(HttpStatus.OK.value(), message, data));
     }
 
+    // no-cache lets clients keep the body but revalidate it with If-None-Match on every use
+    public static <T> ResponseEntity<ProductResponse<T>> success(String message, T data, String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(new ProductResponse<>(HttpStatus.OK.value(), message, data));
+    }
+
+    public static <T> ResponseEntity<ProductResponse<T>> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
     public static <T> ResponseEntity<ProductResponse<T>> created(String message, T data) {
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ProductResponse<>(HttpStatus.CREATED.value(), message, data));
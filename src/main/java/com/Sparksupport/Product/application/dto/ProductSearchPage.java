@@ -0,0 +1,6 @@
+package com.sparksupport.product.application.dto;
+
+import java.util.List;
+
+public record ProductSearchPage(long total, int pageNumber, int listSize, List<ProductDto> products) {
+}
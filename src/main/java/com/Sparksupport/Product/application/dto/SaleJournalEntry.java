@@ -0,0 +1,10 @@
+package com.sparksupport.product.application.dto;
+
+import com.sparksupport.product.application.event.SaleChangedEvent;
+
+/**
+ * A sale event read back from the journal; nextOffset is where to resume reading after it. seq is
+ * the event's change-feed sequence (0 for events journaled before sequences were recorded).
+ */
+public record SaleJournalEntry(long offset, long nextOffset, long seq, SaleChangedEvent event) {
+}
@@ -0,0 +1,6 @@
+package com.sparksupport.product.application.dto;
+
+import java.util.List;
+
+public record SaleJournalPage(List<SaleJournalEntry> entries, long nextOffset, long endOffset) {
+}
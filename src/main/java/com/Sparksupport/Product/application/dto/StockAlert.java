@@ -0,0 +1,15 @@
+package com.sparksupport.product.application.dto;
+
+import java.time.Instant;
+
+/**
+ * A product's stock alert level, as delivered on each change of level and listed while active.
+ * {@code since} is when the product entered {@code level}; {@code quantity} is the latest known stock.
+ */
+public record StockAlert(Integer productId, Level level, Level previousLevel, int quantity, int threshold,
+                         Instant since) {
+
+    public enum Level {
+        OK, LOW, OUT
+    }
+}
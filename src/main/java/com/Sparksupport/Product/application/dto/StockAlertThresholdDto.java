@@ -0,0 +1,24 @@
+package com.sparksupport.product.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Low-stock threshold for one product")
+public class StockAlertThresholdDto {
+
+    @NotNull(message = "threshold is required")
+    @Min(value = 0, message = "threshold must be >= 0")
+    @Max(value = 1_000_000, message = "threshold must be <= 1000000")
+    @Schema(description = "Alert when stock falls to this quantity or below; 0 alerts on stock-outs only", example = "10")
+    private Integer threshold;
+}
@@ -0,0 +1,28 @@
+package com.sparksupport.product.application.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sparksupport.product.application.model.Product;
+
+import java.time.Instant;
+
+/**
+ * Published when a product is created, edited or deleted, and when its stock changes
+ * through sales (STOCK_CHANGED carries only the new quantity).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductChangedEvent(Type type, Integer productId, String name, Double price, Integer quantity,
+                                  Instant occurredAt) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, STOCK_CHANGED
+    }
+
+    public static ProductChangedEvent of(Type type, Product product) {
+        return new ProductChangedEvent(type, product.getId(), product.getName(), product.getPrice(),
+                product.getQuantity(), Instant.now());
+    }
+
+    public static ProductChangedEvent stockChanged(Integer productId, int quantity) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, productId, null, null, quantity, Instant.now());
+    }
+}
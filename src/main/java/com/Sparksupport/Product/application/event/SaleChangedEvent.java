@@ -0,0 +1,29 @@
+package com.sparksupport.product.application.event;
+
+import com.sparksupport.product.application.model.Sale;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Published by the sale service for every sale create, update and delete.
+ * quantityDelta is the change in units sold, so summing it (or revenueDelta) over the
+ * events of a product gives its current totals.
+ */
+public record SaleChangedEvent(Type type, Integer saleId, Integer productId, int quantity, int quantityDelta,
+                               BigDecimal salePrice, LocalDateTime saleDate, Instant occurredAt) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static SaleChangedEvent of(Type type, Sale sale, int quantityDelta) {
+        return new SaleChangedEvent(type, sale.getId(), sale.getProductId(), sale.getQuantity(), quantityDelta,
+                sale.getSalePrice(), sale.getSaleDate(), Instant.now());
+    }
+
+    public BigDecimal revenueDelta() {
+        return salePrice == null ? BigDecimal.ZERO : salePrice.multiply(BigDecimal.valueOf(quantityDelta));
+    }
+}
@@ -0,0 +1,14 @@
+package com.sparksupport.product.application.exception;
+
+public class ExportQueueFullException extends RuntimeException {
+    private final String jobId;
+
+    public ExportQueueFullException(String jobId) {
+        super("Too many PDF exports are queued; please retry later");
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+}
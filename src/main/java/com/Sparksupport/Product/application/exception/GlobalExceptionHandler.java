@@ -3,6 +3,8 @@ package com.sparksupport.product.application.exception;
 import com.sparksupport.product.application.dto.ProductResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -63,6 +65,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<Object> handleReservationNotFound(ReservationNotFoundException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+        errorResponse.put("error", "Reservation Not Found");
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("reservationId", ex.getReservationId());
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        errorResponse.put("error", "Idempotency Key Reused");
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("idempotencyKey", ex.getIdempotencyKey());
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
     @ExceptionHandler(IpAccessDeniedException.class)
     public ResponseEntity<Object> handleIpAccessDenied(IpAccessDeniedException ex) {
         Map<String, Object> errorResponse = new HashMap<>();
@@ -87,6 +109,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(UnindexedQueryException.class)
+    public ResponseEntity<Object> handleUnindexedQuery(UnindexedQueryException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        errorResponse.put("error", "Unsupported Filter Combination");
+        errorResponse.put("message", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(InventoryUpdateException.class)
     public ResponseEntity<Object> handleInventoryUpdate(InventoryUpdateException ex) {
         Map<String, Object> errorResponse = new HashMap<>();
@@ -98,6 +129,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    // The export job is already marked FAILED, so polling its id reports the rejection too
+    @ExceptionHandler(ExportQueueFullException.class)
+    public ResponseEntity<Object> handleExportQueueFull(ExportQueueFullException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorResponse.put("error", "Export Queue Full");
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("jobId", ex.getJobId());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(errorResponse);
+    }
+
+    // Raised when a version-conflict retry budget is exhausted under heavy contention
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.CONFLICT.value());
+        errorResponse.put("error", "Concurrent Update");
+        errorResponse.put("message", "The record was changed by another request; please retry");
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     // Handle JSON parsing errors (e.g., invalid date format)
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Object> handleJsonParseError(HttpMessageNotReadableException ex) {
@@ -0,0 +1,14 @@
+package com.sparksupport.product.application.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+    private final Long reservationId;
+
+    public ReservationNotFoundException(Long reservationId) {
+        super(String.format("Reservation not found with id: %d", reservationId));
+        this.reservationId = reservationId;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+}
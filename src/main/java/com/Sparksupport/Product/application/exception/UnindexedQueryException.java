@@ -0,0 +1,8 @@
+package com.sparksupport.product.application.exception;
+
+public class UnindexedQueryException extends RuntimeException {
+
+    public UnindexedQueryException(String message) {
+        super(message);
+    }
+}
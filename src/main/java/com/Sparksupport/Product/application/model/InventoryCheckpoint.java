@@ -0,0 +1,36 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last write-behind log sequence the inventory engine applied to product quantities, one row per
+ * log shard (id = shard + 1). Rows are updated in the same transaction as the quantities, so
+ * recovery replays exactly the log records after them.
+ */
+@Entity
+@Table(name = "inventory_checkpoint")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckpoint {
+
+    public static int idOf(int shard) {
+        return shard + 1;
+    }
+
+    public static int shardOf(int id) {
+        return id - 1;
+    }
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+}
@@ -0,0 +1,29 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last outbox sequence an in-process consumer has applied. A consumer locks its row, applies the
+ * events after it and moves it forward in one transaction, so every relayed event is applied once
+ * even with several instances running.
+ */
+@Entity
+@Table(name = "outbox_consumer_offset")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxConsumerOffset {
+
+    @Id
+    @Column(length = 64)
+    private String consumer;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+}
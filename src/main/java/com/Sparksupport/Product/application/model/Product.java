@@ -10,6 +10,8 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -18,7 +20,13 @@ import java.util.List;
 @Entity
 @Table(name = "Product", uniqueConstraints = {
         @UniqueConstraint(columnNames = "name")
-}) //Not working
+}, indexes = { // Listing filters and sorts: see ProductSpecifications
+        @Index(name = "idx_product_price", columnList = "is_deleted, price"),
+        @Index(name = "idx_product_quantity", columnList = "is_deleted, quantity")
+}) // ProductNameIndex checks at startup that the unique name index exists before trusting its misses
+@Cacheable
+@DynamicUpdate // only changed columns are written, so catalog edits never overwrite a concurrently changed quantity
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -69,6 +77,12 @@ public class Product implements Serializable {
     @JsonIgnore  // Hide internal implementation from API clients
     private Boolean isDeleted = false;
 
+    // Optimistic lock; JDBC bulk writers bump it too, so a stale entity cannot overwrite their changes
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     public Product(Integer id, String name, String description, Double price) {
         Id = id;
         this.name = name;
@@ -150,6 +164,10 @@ public class Product implements Serializable {
         this.isDeleted = isDeleted;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
@@ -0,0 +1,48 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only log of product prices. The price in effect at time T is the latest row
+ * with effectiveFrom <= T, served by the (product_id, effective_from) index. Products that
+ * predate the history get a BASELINE row with their price at the time it was first seeded.
+ */
+@Entity
+@Table(name = "product_price_history", indexes = {
+        @Index(name = "idx_price_history_product_time", columnList = "product_id, effective_from")
+})
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceHistory {
+
+    public static final String SOURCE_CREATE = "CREATE";
+    public static final String SOURCE_UPDATE = "UPDATE";
+    public static final String SOURCE_BULK = "BULK";
+    public static final String SOURCE_IMPORT = "IMPORT";
+    public static final String SOURCE_BASELINE = "BASELINE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Integer productId;
+
+    @Column(nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "effective_from", nullable = false, updatable = false)
+    private LocalDateTime effectiveFrom;
+
+    @Column(name = "change_source", nullable = false, updatable = false, length = 16)
+    private String changeSource;
+}
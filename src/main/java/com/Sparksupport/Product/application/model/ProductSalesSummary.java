@@ -0,0 +1,55 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized read model: one row per product with its catalog columns and lifetime sales
+ * totals, so reports and revenue reads never aggregate sales. Written only through JDBC by
+ * ProductSalesSummaryWriter, in the same transaction as the product or sale change, or from the
+ * outbox shortly after it when the inventory engine takes sales.
+ */
+@Entity
+@Immutable
+@Table(name = "product_sales_summary", indexes = { // minRevenue listing filter
+        @Index(name = "idx_sales_summary_revenue", columnList = "is_deleted, revenue")
+})
+@Getter
+@NoArgsConstructor
+public class ProductSalesSummary {
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    private String name;
+
+    private String description;
+
+    private Double price;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Sum of sale_price * quantity over non-deleted sales
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal revenue;
+
+    @Column(name = "units_sold", nullable = false)
+    private Long unitsSold;
+
+    @Column(name = "last_sale_date")
+    private LocalDateTime lastSaleDate;
+
+    @Column(name = "is_deleted", nullable = false)
+    private Boolean isDeleted;
+}
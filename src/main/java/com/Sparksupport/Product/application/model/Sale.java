@@ -15,6 +15,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = { // Covers per-product revenue totals without reading sale rows
+        @Index(name = "idx_sale_product_revenue", columnList = "product_id, is_deleted, sale_price, Quantity")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +53,11 @@ public class Sale implements Serializable {
     @JsonIgnore  // Hide internal implementation from API clients
     private Boolean isDeleted = false;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
     public BigDecimal getSalePrice() {
         return salePrice;
     }
@@ -98,6 +106,10 @@ public class Sale implements Serializable {
         this.isDeleted = isDeleted;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "Sale{" +
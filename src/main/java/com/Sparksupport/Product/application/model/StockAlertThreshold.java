@@ -0,0 +1,27 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Low-stock threshold overriding app.stock-alerts.default-threshold for one product.
+ */
+@Entity
+@Table(name = "stock_alert_threshold")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertThreshold {
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(nullable = false)
+    private Integer threshold;
+}
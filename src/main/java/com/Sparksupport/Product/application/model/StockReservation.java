@@ -0,0 +1,55 @@
+package com.sparksupport.product.application.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A hold on product stock while a checkout completes. Held stock is not deducted from
+ * Product.quantity; it is subtracted from what is available to sell until the reservation
+ * is confirmed (turned into a sale), released, or expires.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_reservation_status_expiry", columnList = "status, expires_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    public enum Status {
+        ACTIVE, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Integer productId;
+
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+
+    // Sale created when the reservation was confirmed
+    @Column(name = "sale_id")
+    private Integer saleId;
+}
@@ -0,0 +1,27 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findBySeqIsNullOrderByIdAsc(Pageable pageable);
+
+    List<OutboxEvent> findBySeqGreaterThanOrderBySeqAsc(Long seq, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(o.seq), 0) FROM OutboxEvent o")
+    long findMaxSeq();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.seq IS NOT NULL AND o.createdAt < :cutoff")
+    int deleteRelayedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
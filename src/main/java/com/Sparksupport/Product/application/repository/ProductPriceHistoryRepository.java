@@ -0,0 +1,20 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ProductPriceHistoryRepository extends JpaRepository<ProductPriceHistory, Long> {
+
+    // Price in effect at the given time - newest entry not after it
+    Optional<ProductPriceHistory> findFirstByProductIdAndEffectiveFromLessThanEqualOrderByEffectiveFromDescIdDesc(
+            Integer productId, LocalDateTime at);
+
+    Page<ProductPriceHistory> findByProductIdOrderByEffectiveFromDescIdDesc(Integer productId, Pageable pageable);
+}
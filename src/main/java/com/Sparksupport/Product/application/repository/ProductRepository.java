@@ -1,27 +1,44 @@
 package com.sparksupport.product.application.repository;
 
+import com.sparksupport.product.application.dto.ProductDto;
 import com.sparksupport.product.application.model.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+
+    // Query cache region - entries are invalidated by Hibernate whenever the Product table is written
+    String PRODUCT_QUERY_REGION = "product-queries";
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = PRODUCT_QUERY_REGION)})
     boolean existsByNameAndIsDeletedFalse(String name);
 
     // Find all non-deleted products with pagination
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = PRODUCT_QUERY_REGION)})
     Page<Product> findByIsDeletedFalse(Pageable pageable);
 
     // Find non-deleted product by ID
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = PRODUCT_QUERY_REGION)})
     Optional<Product> findByIdAndIsDeletedFalse(Integer id);
 
     // Custom query to find all non-deleted products
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = PRODUCT_QUERY_REGION)})
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false")
     Page<Product> findAllActiveProducts(Pageable pageable);
 
@@ -29,6 +46,27 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Query("SELECT p FROM Product p WHERE p.Id = :id")
     Optional<Product> findByIdIncludingDeleted(@Param("id") Integer id);
 
+    // Names of all active products - streamed to build the in-memory name index
+    @Query("SELECT p.name FROM Product p WHERE p.isDeleted = false")
+    Stream<String> streamActiveProductNames();
+
+    // Rows of [id, quantity] for active products at or below the quantity; served by idx_product_quantity
+    @Query("SELECT p.Id, p.quantity FROM Product p WHERE p.isDeleted = false AND p.quantity <= :maxQuantity")
+    List<Object[]> findStockAtOrBelow(@Param("maxQuantity") int maxQuantity);
+
+    // Rows of [id, quantity] for the active products among the ids; scalar, so never served from the entity cache
+    @Query("SELECT p.Id, p.quantity FROM Product p WHERE p.isDeleted = false AND p.Id IN :ids")
+    List<Object[]> findStockByIds(@Param("ids") Collection<Integer> ids);
+
+    // Rows of [id, quantity] for the active products with these names; served by the unique name index
+    @Query("SELECT p.Id, p.quantity FROM Product p WHERE p.isDeleted = false AND p.name IN :names")
+    List<Object[]> findStockByNames(@Param("names") Collection<String> names);
+
+    // Searchable fields of all active products - streamed to build the in-memory search index
+    @Query("SELECT new com.sparksupport.product.application.dto.ProductDto(p.Id, p.name, p.description, p.price, p.quantity) FROM Product p WHERE p.isDeleted = false")
+    Stream<ProductDto> streamActiveProductsForSearch();
+
     // Find if name exists for products other than the specified ID
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = PRODUCT_QUERY_REGION)})
     boolean existsByNameAndIsDeletedFalseAndIdNot(String name, Integer id);
 }
@@ -0,0 +1,22 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.model.ProductSalesSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ProductSalesSummaryRepository extends JpaRepository<ProductSalesSummary, Integer> {
+
+    Slice<ProductSalesSummary> findByIsDeletedFalseAndProductIdGreaterThan(Integer productId, Pageable pageable);
+
+    long countByIsDeletedFalse();
+
+    // Includes deleted products, whose sales still count towards the total as before
+    @Query("SELECT COALESCE(SUM(s.revenue), 0) FROM ProductSalesSummary s")
+    BigDecimal sumRevenue();
+}
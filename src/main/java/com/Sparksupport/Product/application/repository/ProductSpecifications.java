@@ -0,0 +1,105 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.dto.ProductFilter;
+import com.sparksupport.product.application.exception.UnindexedQueryException;
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.ProductSalesSummary;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Listing filters as Criteria predicates, restricted to combinations an index can serve.
+ *
+ * <p>Price, stock and name each have an index led by their column ({@code idx_product_price},
+ * {@code idx_product_quantity} and the unique name index), so a range on one of them is an index
+ * range scan that already returns rows in that column's order. A B-tree can drive only one range
+ * at a time, and sorting the matches of one range by another column means sorting all of them
+ * before the first page comes out; both are rejected rather than left to degrade into scans.
+ * The revenue filter is a semi-join on the lifetime totals kept in the product sales summary,
+ * a range scan of {@code idx_sales_summary_revenue}, and can be combined with any of the above.
+ */
+public final class ProductSpecifications {
+
+    // Sort field -> entity attribute; each is the leading column of an index (Id is the primary key)
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "Id",
+            "name", "name",
+            "price", "price",
+            "quantity", "quantity");
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isFalse(root.get("isDeleted")));
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getMaxStock() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("quantity"), filter.getMaxStock()));
+            }
+            if (filter.getNamePrefix() != null) {
+                predicates.add(cb.like(root.get("name"), escapeLike(filter.getNamePrefix()) + "%", '\\'));
+            }
+            if (filter.getMinRevenue() != null) {
+                Subquery<Integer> earning = query.subquery(Integer.class);
+                var summary = earning.from(ProductSalesSummary.class);
+                earning.select(summary.get("productId"))
+                        .where(cb.isFalse(summary.get("isDeleted")),
+                                cb.greaterThanOrEqualTo(summary.get("revenue"), filter.getMinRevenue()));
+                predicates.add(root.get("Id").in(earning));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * The order to list the filter's matches in, after checking that one index serves both the
+     * filter and the order. Ties are broken by id, which the secondary indexes carry anyway.
+     *
+     * @throws UnindexedQueryException if the combination would need a scan or an unbounded sort
+     */
+    public static Sort indexedSort(ProductFilter filter) {
+        Set<String> ranges = new LinkedHashSet<>();
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            ranges.add("price");
+        }
+        if (filter.getMaxStock() != null) {
+            ranges.add("quantity");
+        }
+        if (filter.getNamePrefix() != null) {
+            ranges.add("name");
+        }
+        if (ranges.size() > 1) {
+            throw new UnindexedQueryException("Filter on at most one of price range, maxStock and namePrefix; got "
+                    + String.join(", ", ranges));
+        }
+
+        String range = ranges.isEmpty() ? null : ranges.iterator().next();
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : range != null ? range : "id";
+        if (range != null && !range.equals(sortBy)) {
+            throw new UnindexedQueryException("Results filtered by " + range + " can only be sorted by " + range);
+        }
+
+        Sort.Direction direction = Sort.Direction.fromString(filter.getDirection() != null ? filter.getDirection() : "asc");
+        Sort sort = Sort.by(direction, SORTABLE.get(sortBy));
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "Id"));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,9 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.model.StockAlertThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockAlertThresholdRepository extends JpaRepository<StockAlertThreshold, Integer> {
+}
@@ -0,0 +1,29 @@
+package com.sparksupport.product.application.repository;
+
+import com.sparksupport.product.application.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByStatus(StockReservation.Status status);
+
+    // Guarded transition: only an unexpired ACTIVE reservation can be confirmed or released
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :status, r.saleId = :saleId " +
+           "WHERE r.id = :id AND r.status = 'ACTIVE' AND r.expiresAt > :now")
+    int settle(@Param("id") Long id, @Param("status") StockReservation.Status status,
+               @Param("saleId") Integer saleId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = 'EXPIRED' WHERE r.id IN :ids AND r.status = 'ACTIVE'")
+    int expireAll(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,18 @@
+package com.sparksupport.product.application.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Run a non-idempotent request at most once per Idempotency-Key.
+     * A repeated key with the same fingerprint gets the stored response (marked with
+     * {@link #REPLAYED_HEADER}) without running the action again; concurrent duplicates wait for
+     * the first attempt instead. Reusing a key with a different fingerprint is rejected.
+     */
+    ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action);
+}
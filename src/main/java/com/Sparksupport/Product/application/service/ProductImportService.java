@@ -0,0 +1,21 @@
+package com.sparksupport.product.application.service;
+
+import com.sparksupport.product.application.dto.ProductImportSummary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ProductImportService {
+
+    enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Stream products from the input, upsert them in batches and write one NDJSON result
+     * line per row (plus a final summary line) to the report stream as chunks commit.
+     * Cached product reads may still show the previous values until the whole import finishes.
+     */
+    ProductImportSummary importProducts(InputStream input, Format format, OutputStream report) throws IOException;
+}
@@ -1,6 +1,7 @@
 package com.sparksupport.product.application.service;
 
 import com.sparksupport.product.application.model.Product;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface ProductPdfService {
@@ -11,7 +12,8 @@ public interface ProductPdfService {
     byte[] generateProductTablePdf(List<Product> products) throws Exception;
 
     /**
-     * Submit async PDF generation job - backend will fetch data
+     * Submit async PDF generation job - backend will fetch data.
+     * Throws ExportQueueFullException, with the job marked FAILED, when the export queue is full
      */
     String submitPdfGenerationJob();
 
@@ -26,4 +28,9 @@ public interface ProductPdfService {
      * Check if file exists and return file bytes if ready
      */
     byte[] getFileIfReady(String jobId) throws Exception;
+
+    /**
+     * Stored gzip-compressed file of a completed job, or null if it is not ready
+     */
+    Path getCompressedFileIfReady(String jobId) throws Exception;
 }
@@ -0,0 +1,29 @@
+package com.sparksupport.product.application.service;
+
+import com.sparksupport.product.application.dto.BulkPriceUpdateDto;
+import com.sparksupport.product.application.dto.BulkPriceUpdateResult;
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ProductPricingService {
+
+    /**
+     * Apply explicit prices or a percentage rule as set-based batched updates and
+     * append the new prices to the price history, all in one transaction.
+     */
+    BulkPriceUpdateResult bulkUpdatePrices(BulkPriceUpdateDto request);
+
+    /**
+     * Append one price change to the history (single-product create/update paths).
+     */
+    void recordPrice(Integer productId, Double price, String source);
+
+    Optional<BigDecimal> getPriceAt(Integer productId, LocalDateTime at);
+
+    Page<ProductPriceHistory> getPriceHistory(Integer productId, Pageable pageable);
+}
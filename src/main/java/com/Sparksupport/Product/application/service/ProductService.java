@@ -1,18 +1,28 @@
 package com.sparksupport.product.application.service;
 
 import com.sparksupport.product.application.dto.CreateProductDto;
+import com.sparksupport.product.application.dto.ProductFilter;
 import com.sparksupport.product.application.dto.UpdateProductDto;
 import com.sparksupport.product.application.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
+
 
 public interface ProductService  {
 
     Page<Product> getAllProducts(Pageable pageable); // pagination
 
+    // Filtered and sorted listing; rejects combinations no index can serve
+    Page<Product> getProducts(ProductFilter filter, int pageNumber, int listSize);
+
     Product getProductById(Integer id);
 
+    // Non-deleted products among the ids, keyed by id; absent ids are simply missing from the map
+    Map<Integer, Product> getProductsByIds(Collection<Integer> ids);
+
     Product addProduct(CreateProductDto createProductDto);
 
     Product updateProduct(Integer id, UpdateProductDto updateProductDto);
@@ -0,0 +1,22 @@
+package com.sparksupport.product.application.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ReportExportService {
+
+    enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Stream all active products to the output, row by row, without loading them into memory.
+     */
+    void exportProducts(Format format, OutputStream output) throws IOException;
+
+    /**
+     * Stream active sales, optionally limited to saleDate in [from, to), without loading them into memory.
+     */
+    void exportSales(Format format, LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.sparksupport.product.application.service;
+
+import com.sparksupport.product.application.dto.AvailabilityDto;
+import com.sparksupport.product.application.dto.CreateReservationDto;
+import com.sparksupport.product.application.model.Sale;
+import com.sparksupport.product.application.model.StockReservation;
+
+public interface ReservationService {
+
+    StockReservation createReservation(CreateReservationDto request);
+
+    StockReservation getReservation(Long reservationId);
+
+    /**
+     * Turn an active reservation into a sale of the held quantity.
+     */
+    Sale confirmReservation(Long reservationId);
+
+    StockReservation releaseReservation(Long reservationId);
+
+    AvailabilityDto getAvailability(Integer productId);
+}
@@ -5,10 +5,16 @@ import com.sparksupport.product.application.model.Sale;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface SaleService {
 
     Sale addSales(Integer productId, Sale sale);
 
+    // Records a sale whose stock the caller already holds in the reservation ledger
+    Sale addReservedSale(Integer productId, Sale sale);
+
     Sale updateSales(Integer saleId, UpdateSaleDto updateSaleDto);
 
     Boolean deleteSales(Integer saleId);
@@ -17,4 +23,7 @@ public interface SaleService {
     Page<Sale> getSalesByProductId(Integer productId, Pageable pageable);
 
     Page<Sale> getAllSales(Pageable pageable);
+
+    // Non-deleted sales among the ids, keyed by id; absent ids are simply missing from the map
+    Map<Integer, Sale> getSalesByIds(Collection<Integer> ids);
 }
@@ -0,0 +1,18 @@
+package com.sparksupport.product.application.service;
+
+import com.sparksupport.product.application.dto.StockAlert;
+
+import java.util.List;
+
+public interface StockAlertService {
+
+    List<StockAlert> getActiveAlerts();
+
+    // Effective threshold of the product: its own, or the default
+    int getThreshold(Integer productId);
+
+    int setThreshold(Integer productId, int threshold);
+
+    // Back to the default threshold; returns it
+    int resetThreshold(Integer productId);
+}
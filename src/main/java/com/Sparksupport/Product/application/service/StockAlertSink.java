@@ -0,0 +1,14 @@
+package com.sparksupport.product.application.service;
+
+import com.sparksupport.product.application.dto.StockAlert;
+
+import java.util.List;
+
+/**
+ * Destination for stock alert level changes. Every sink bean receives every batch, in the order
+ * the changes were observed; a batch that fails in one sink is not retried.
+ */
+public interface StockAlertSink {
+
+    void deliver(List<StockAlert> alerts);
+}
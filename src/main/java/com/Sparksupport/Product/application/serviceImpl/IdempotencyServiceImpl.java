@@ -0,0 +1,236 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.config.ConflictRetryPolicy;
+import com.sparksupport.product.application.config.DataSourceRoutingContext;
+import com.sparksupport.product.application.exception.IdempotencyKeyReusedException;
+import com.sparksupport.product.application.model.IdempotencyRecord;
+import com.sparksupport.product.application.repository.IdempotencyRecordRepository;
+import com.sparksupport.product.application.service.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_key (idem_key, request_hash, status_code, response_body, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final Duration ttl;
+
+    // Completed responses, most recently used last; the key table stays the source of truth
+    private final Map<String, StoredResponse> recent;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                  ConflictRetryPolicy conflictRetryPolicy,
+                                  @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${app.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        // Keys are chosen by clients, so they are only unique per user
+        String scopedKey = currentUser() + ":" + key;
+        String requestHash = sha256(fingerprint);
+
+        StoredResponse cached = cached(scopedKey);
+        if (cached != null) {
+            return replay(key, cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopedKey, attempt);
+        if (running != null) {
+            return replay(key, await(running), requestHash);
+        }
+        try {
+            StoredResponse stored = lookup(scopedKey);
+            boolean replayed = stored != null;
+            if (!replayed) {
+                stored = executeOnce(scopedKey, requestHash, action);
+                replayed = stored.replayed();
+            }
+            if (stored.statusCode() < 300) {
+                synchronized (recent) {
+                    recent.put(scopedKey, stored.asReplay());
+                }
+            }
+            attempt.complete(stored.asReplay());
+            return replayed ? replay(key, stored, requestHash) : toResponse(stored);
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, attempt);
+        }
+    }
+
+    @Scheduled(cron = "0 45 * * * *")
+    public void purgeExpiredKeys() {
+        Integer purged = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Runs the action and stores a successful response in its transaction; a failure stores nothing
+    private StoredResponse executeOnce(String scopedKey, String requestHash, Supplier<ResponseEntity<?>> action) {
+        try {
+            // The action joins this transaction, so version-conflict retries have to wrap it here
+            return conflictRetryPolicy.execute("IdempotencyService.execute", () -> transactionTemplate.execute(status -> {
+                    ResponseEntity<?> response = action.get();
+                    LocalDateTime now = LocalDateTime.now();
+                    StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                            toJson(response.getBody()), now.plus(ttl), false);
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        jdbcTemplate.update(INSERT_SQL, scopedKey, requestHash, stored.statusCode(), stored.body(),
+                                now, stored.expiresAt());
+                    }
+                    return stored;
+                }));
+        } catch (DuplicateKeyException e) {
+            // Another instance committed the same key first; this attempt was rolled back with it
+            StoredResponse winner = lookup(scopedKey);
+            if (winner == null) {
+                throw e;
+            }
+            return winner;
+        }
+    }
+
+    private StoredResponse cached(String scopedKey) {
+        synchronized (recent) {
+            StoredResponse stored = recent.get(scopedKey);
+            if (stored != null && stored.expiresAt().isBefore(LocalDateTime.now())) {
+                recent.remove(scopedKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private StoredResponse lookup(String scopedKey) {
+        IdempotencyRecord record = DataSourceRoutingContext.onPrimary(
+                () -> idempotencyRecordRepository.findById(scopedKey).orElse(null));
+        if (record == null) {
+            return null;
+        }
+        if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // Expired keys may be reused; clear the row so the new attempt can claim it
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(scopedKey));
+            return null;
+        }
+        return new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getResponseBody(),
+                record.getExpiresAt(), true);
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // The duplicate gets the same outcome as the attempt it waited for
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<?> replay(String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        return ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body());
+    }
+
+    private static ResponseEntity<?> toResponse(StoredResponse stored) {
+        return ResponseEntity.status(stored.statusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body());
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for idempotent replay", e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String body, LocalDateTime expiresAt,
+                                  boolean replayed) {
+
+        StoredResponse asReplay() {
+            return replayed ? this : new StoredResponse(requestHash, statusCode, body, expiresAt, true);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.sparksupport.product.application.dto.StockAlert;
+import com.sparksupport.product.application.service.StockAlertSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes each alert as a line to the "stock-alerts" logger, which logback routes to stockalerts.log.
+ */
+@Component
+@ConditionalOnProperty(name = "app.stock-alerts.log-sink.enabled", havingValue = "true", matchIfMissing = true)
+public class LogStockAlertSink implements StockAlertSink {
+
+    private static final Logger alertLogger = LoggerFactory.getLogger("stock-alerts");
+
+    @Override
+    public void deliver(List<StockAlert> alerts) {
+        for (StockAlert alert : alerts) {
+            alertLogger.info("{}|{}|{}|{}|{}|{}", alert.since(), alert.productId(), alert.previousLevel(),
+                    alert.level(), alert.quantity(), alert.threshold());
+        }
+    }
+}
@@ -64,7 +64,7 @@ public class PdfExportTaskServiceImpl implements PdfExportTaskService {
         Instant cutoffTime = Instant.now().minus(hours, ChronoUnit.HOURS);
         int deletedFiles = 0;
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(exportDir, "*.pdf")) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(exportDir, PdfTaskManager.FILE_PREFIX + "*")) {
             for (Path file : stream) {
                 try {
                     BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
@@ -77,9 +77,9 @@ public class PdfExportTaskServiceImpl implements PdfExportTaskService {
 
                         // Extract jobId from filename and remove from status map
                         String fileName = file.getFileName().toString();
-                        if (fileName.startsWith("products-report-") && fileName.endsWith(".pdf")) {
-                            String jobId = fileName.substring("products-report-".length(),
-                                                            fileName.length() - ".pdf".length());
+                        if (fileName.endsWith(PdfTaskManager.FILE_SUFFIX)) {
+                            String jobId = fileName.substring(PdfTaskManager.FILE_PREFIX.length(),
+                                                            fileName.length() - PdfTaskManager.FILE_SUFFIX.length());
                             taskManager.removeJob(jobId);
                         }
                     }
@@ -113,8 +113,7 @@ public class PdfExportTaskServiceImpl implements PdfExportTaskService {
             String status = entry.getValue();
 
             if ("COMPLETED".equals(status) || "FAILED".equals(status)) {
-                String fileName = "products-report-" + jobId + ".pdf";
-                Path filePath = exportDir.resolve(fileName);
+                Path filePath = exportDir.resolve(PdfTaskManager.storedFileName(jobId));
 
                 if (!Files.exists(filePath)) {
                     log.debug("Removing orphaned job status for jobId: {}", jobId);
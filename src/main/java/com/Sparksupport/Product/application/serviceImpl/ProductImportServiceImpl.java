@@ -0,0 +1,266 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.sparksupport.product.application.config.InventoryEngine;
+import com.sparksupport.product.application.config.OutboxWriter;
+import com.sparksupport.product.application.config.ProductCacheEvictor;
+import com.sparksupport.product.application.config.ProductNameIndex;
+import com.sparksupport.product.application.config.ProductSalesSummaryWriter;
+import com.sparksupport.product.application.config.StockAlertEngine;
+import com.sparksupport.product.application.dto.CreateProductDto;
+import com.sparksupport.product.application.dto.ProductImportResult;
+import com.sparksupport.product.application.dto.ProductImportSummary;
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import com.sparksupport.product.application.service.Create;
+import com.sparksupport.product.application.service.ProductImportService;
+import com.sparksupport.product.application.util.CsvUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    // Upsert keyed on the unique product name; a soft-deleted product with the same name is revived
+    private static final String UPSERT_SQL =
+            "INSERT INTO product (name, description, price, quantity, is_deleted) VALUES (?, ?, ?, ?, false) " +
+            "ON DUPLICATE KEY UPDATE description = VALUES(description), price = VALUES(price), " +
+            "quantity = VALUES(quantity), is_deleted = false, version = version + 1";
+
+    // Appends the imported price to the history of the row the upsert touched
+    private static final String PRICE_HISTORY_SQL =
+            "INSERT INTO product_price_history (product_id, price, effective_from, change_source) " +
+            "SELECT id, price, ?, '" + ProductPriceHistory.SOURCE_IMPORT + "' FROM product WHERE name = ?";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "quantity");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductNameIndex productNameIndex;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final OutboxWriter outboxWriter;
+    private final ProductSalesSummaryWriter productSalesSummaryWriter;
+    private final StockAlertEngine stockAlertEngine;
+
+    @Autowired
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    Validator validator, ObjectMapper objectMapper,
+                                    ProductNameIndex productNameIndex, ProductCacheEvictor productCacheEvictor,
+                                    Optional<InventoryEngine> inventoryEngine, OutboxWriter outboxWriter,
+                                    ProductSalesSummaryWriter productSalesSummaryWriter,
+                                    StockAlertEngine stockAlertEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productNameIndex = productNameIndex;
+        this.productCacheEvictor = productCacheEvictor;
+        this.inventoryEngine = inventoryEngine;
+        this.outboxWriter = outboxWriter;
+        this.productSalesSummaryWriter = productSalesSummaryWriter;
+        this.stockAlertEngine = stockAlertEngine;
+    }
+
+    @Override
+    public ProductImportSummary importProducts(InputStream input, Format format, OutputStream report) throws IOException {
+        long start = System.currentTimeMillis();
+        ProductImportSummary summary = new ProductImportSummary();
+        Set<String> seenNames = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = format == Format.CSV ? readCsvHeader(reader) : null;
+
+        try (SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(report)) {
+            String line;
+            long rowNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowNumber++;
+                summary.setTotal(summary.getTotal() + 1);
+
+                CreateProductDto product;
+                try {
+                    product = format == Format.CSV ? parseCsvRow(line, csvColumns) : objectMapper.readValue(line, CreateProductDto.class);
+                } catch (Exception e) {
+                    summary.setInvalid(summary.getInvalid() + 1);
+                    results.write(new ProductImportResult(rowNumber, null, ProductImportResult.INVALID,
+                            List.of("Unparseable row: " + e.getMessage())));
+                    continue;
+                }
+
+                List<String> errors = validate(product);
+                if (!errors.isEmpty()) {
+                    summary.setInvalid(summary.getInvalid() + 1);
+                    results.write(new ProductImportResult(rowNumber, product.getName(), ProductImportResult.INVALID, errors));
+                    continue;
+                }
+
+                product.setName(product.getName().trim());
+                if (!seenNames.add(ProductNameIndex.normalize(product.getName()))) {
+                    summary.setDuplicate(summary.getDuplicate() + 1);
+                    results.write(new ProductImportResult(rowNumber, product.getName(), ProductImportResult.DUPLICATE,
+                            List.of("Name already appears earlier in this import")));
+                    continue;
+                }
+
+                chunk.add(new PendingRow(rowNumber, product));
+                if (chunk.size() == CHUNK_SIZE) {
+                    flushChunk(chunk, summary, results);
+                }
+            }
+            flushChunk(chunk, summary, results);
+
+            summary.setElapsedMillis(System.currentTimeMillis() - start);
+            results.write(Map.of("summary", summary));
+        } finally {
+            // JDBC writes bypass Hibernate, so cached products and product queries are stale now.
+            // Once per import, not per chunk: a full eviction also reloads the search index
+            if (summary.getUpserted() > 0) {
+                productCacheEvictor.evictAll();
+            }
+        }
+
+        log.info("Product import finished: {}", summary);
+        return summary;
+    }
+
+    private void flushChunk(List<PendingRow> chunk, ProductImportSummary summary, SequenceWriter results) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Column precision, so the outbox snapshot can find these history rows by equality
+        LocalDateTime effectiveFrom = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+        List<Object[]> historyArgs = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            CreateProductDto product = row.product;
+            batchArgs.add(new Object[]{product.getName(), product.getDescription(), product.getPrice(), product.getQuantity()});
+            historyArgs.add(new Object[]{effectiveFrom, product.getName()});
+        }
+
+        String status;
+        List<String> errors = null;
+        try {
+            // One transaction per chunk: a bad chunk is rolled back without losing earlier chunks
+            Runnable upsert = () -> transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+                jdbcTemplate.batchUpdate(PRICE_HISTORY_SQL, historyArgs);
+                outboxWriter.writeProductSnapshots("PRODUCT_IMPORTED", effectiveFrom, ProductPriceHistory.SOURCE_IMPORT);
+                productSalesSummaryWriter.syncProducts(effectiveFrom, ProductPriceHistory.SOURCE_IMPORT);
+            });
+            // Imported quantities are absolute, so engine deltas are flushed first and counts reloaded after
+            if (inventoryEngine.isPresent()) {
+                inventoryEngine.get().reloadAfter(upsert);
+            } else {
+                upsert.run();
+            }
+            status = ProductImportResult.UPSERTED;
+            summary.setUpserted(summary.getUpserted() + chunk.size());
+            chunk.forEach(row -> productNameIndex.add(row.product.getName()));
+            // Imported stock publishes no change events, so the committed chunk is evaluated for alerts here
+            try {
+                stockAlertEngine.importCommitted(chunk.stream().map(row -> row.product.getName()).toList());
+            } catch (RuntimeException e) {
+                log.warn("Stock alert evaluation of the import chunk starting at row {} failed", chunk.get(0).rowNumber, e);
+            }
+        } catch (RuntimeException e) {
+            log.error("Product import chunk starting at row {} failed", chunk.get(0).rowNumber, e);
+            status = ProductImportResult.FAILED;
+            errors = List.of(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            summary.setFailed(summary.getFailed() + chunk.size());
+        }
+
+        for (PendingRow row : chunk) {
+            results.write(new ProductImportResult(row.rowNumber, row.product.getName(), status, errors));
+        }
+        results.flush();
+        chunk.clear();
+    }
+
+    private List<String> validate(CreateProductDto product) {
+        Set<ConstraintViolation<CreateProductDto>> violations = validator.validate(product, Create.class);
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<CreateProductDto> violation : violations) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import requires a header row: " + String.join(",", CSV_COLUMNS));
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvUtil.parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+            }
+        }
+        return columns;
+    }
+
+    private CreateProductDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvUtil.parseLine(line);
+        String price = field(fields, columns.get("price"));
+        String quantity = field(fields, columns.get("quantity"));
+        return CreateProductDto.builder()
+                .name(field(fields, columns.get("name")))
+                .description(field(fields, columns.get("description")))
+                .price(price == null || price.isBlank() ? null : Double.valueOf(price.trim()))
+                .quantity(quantity == null || quantity.isBlank() ? null : Integer.valueOf(quantity.trim()))
+                .build();
+    }
+
+    private String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static final class PendingRow {
+        private final long rowNumber;
+        private final CreateProductDto product;
+
+        private PendingRow(long rowNumber, CreateProductDto product) {
+            this.rowNumber = rowNumber;
+            this.product = product;
+        }
+    }
+}
@@ -1,33 +1,53 @@
 package com.sparksupport.product.application.serviceImpl;
 
 import com.sparksupport.product.application.model.Product;
-import com.sparksupport.product.application.model.Sale;
+import com.sparksupport.product.application.model.ProductSalesSummary;
+import com.sparksupport.product.application.repository.ProductSalesSummaryRepository;
 import com.sparksupport.product.application.config.PdfTaskManager;
+import com.sparksupport.product.application.exception.ExportQueueFullException;
+import com.sparksupport.product.application.util.ContentCodingUtil;
+import com.sparksupport.product.application.util.PdfFontMetrics;
+import com.sparksupport.product.application.util.PdfTextWrapper;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
 
 @Service
 public class ProductPdfService implements com.sparksupport.product.application.service.ProductPdfService {
@@ -35,23 +55,41 @@ public class ProductPdfService implements com.sparksupport.product.application.s
     private static final float MARGIN = 50;
     private static final float ROW_HEIGHT = 25;
     private static final float HEADER_HEIGHT = 30;
-    private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,##0.00");
+    // Rows go on a new page below this height, above the footer
+    private static final float ROW_FLOOR = 80;
+    // Page content a report may hold on the heap before PDFBox spills the rest to a scratch file
+    private static final long REPORT_MAIN_MEMORY_BYTES = 4L * 1024 * 1024;
+    // A4 page width is approximately 595px, with 50px margins on each side = 495px available
+    // Column definitions - optimized to fit within page margins without clipping
+    private static final String[] HEADERS = {"ID", "Product Name", "Description", "Price", "Qty", "Revenue"};
+    private static final float[] COLUMN_WIDTHS = {30, 140, 180, 65, 40, 80}; // Increased Product Name to 140px, reduced Description to 180px
+    // DecimalFormat is not thread-safe and rows are formatted on the layout pool
+    private static final ThreadLocal<DecimalFormat> CURRENCY_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00"));
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
 
-    // Async processing components
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    // Async processing components - shared pdfExportExecutor (platform or virtual threads, see AsyncConfig)
+    private final Executor executorService;
     private final Path exportDir = Paths.get("./exports");
     private final PdfTaskManager taskManager;
-    private final com.sparksupport.product.application.service.ProductService productService;
-    private final com.sparksupport.product.application.repository.SaleRepository saleRepository;
+    private final ProductSalesSummaryRepository productSalesSummaryRepository;
+    private final int artifactCompressionLevel;
+    // Row layout runs here in parallel; PDFBox itself is only used by the job's own thread
+    private final ForkJoinPool layoutPool;
+    private final int layoutChunkRows;
 
     @Autowired
     public ProductPdfService(PdfTaskManager taskManager,
-                           com.sparksupport.product.application.service.ProductService productService,
-                           com.sparksupport.product.application.repository.SaleRepository saleRepository) throws IOException {
+                           ProductSalesSummaryRepository productSalesSummaryRepository,
+                           @Qualifier("pdfExportExecutor") Executor executorService,
+                           @Qualifier("pdfLayoutPool") ForkJoinPool layoutPool,
+                           @Value("${app.compression.artifact-level:9}") int artifactCompressionLevel,
+                           @Value("${app.pdf.layout-chunk-rows:200}") int layoutChunkRows) throws IOException {
         this.taskManager = taskManager;
-        this.productService = productService;
-        this.saleRepository = saleRepository;
+        this.artifactCompressionLevel = artifactCompressionLevel;
+        this.executorService = executorService;
+        this.productSalesSummaryRepository = productSalesSummaryRepository;
+        this.layoutPool = layoutPool;
+        this.layoutChunkRows = layoutChunkRows;
         // Ensure export directory exists
         if (!Files.exists(exportDir)) {
             Files.createDirectories(exportDir);
@@ -63,12 +101,9 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         String jobId = UUID.randomUUID().toString();
         taskManager.setJobStatus(jobId, "IN_PROGRESS");
 
-        executorService.submit(() -> {
+        execute(jobId, () -> {
             try {
-                byte[] pdfBytes = generateProductTablePdf(products);
-                String fileName = "products-report-" + jobId + ".pdf";
-                Path filePath = exportDir.resolve(fileName);
-                Files.write(filePath, pdfBytes);
+                storeCompressed(jobId, out -> renderReport(reportChunks(products), out));
                 taskManager.setJobStatus(jobId, "COMPLETED");
                 System.out.println("PDF generation completed successfully for jobId: " + jobId);
             } catch (Exception e) {
@@ -107,61 +142,234 @@ public class ProductPdfService implements com.sparksupport.product.application.s
             return null;
         }
 
-        String fileName = "products-report-" + jobId + ".pdf";
-        Path filePath = exportDir.resolve(fileName);
+        Path filePath = getCompressedFileIfReady(jobId);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(filePath))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public Path getCompressedFileIfReady(String jobId) throws Exception {
+        if (!"COMPLETED".equals(checkJobStatus(jobId))) {
+            return null;
+        }
+
+        Path filePath = exportDir.resolve(PdfTaskManager.storedFileName(jobId));
 
         if (!Files.exists(filePath)) {
             throw new Exception("File not found for completed job: " + jobId);
         }
 
-        return Files.readAllBytes(filePath);
+        return filePath;
+    }
+
+    // Compressed once at the artifact level (CPU spent per report, not per download) as the report is
+    // written, then moved into place so a download never sees a partly written file
+    private void storeCompressed(String jobId, ReportWriter report) throws IOException {
+        Path target = exportDir.resolve(PdfTaskManager.storedFileName(jobId));
+        Path partial = exportDir.resolve(target.getFileName() + ".part");
+        try (OutputStream out = ContentCodingUtil.encoder(ContentCodingUtil.GZIP, Files.newOutputStream(partial),
+                artifactCompressionLevel)) {
+            report.writeTo(out);
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @FunctionalInterface
+    private interface ReportWriter {
+        void writeTo(OutputStream out) throws IOException;
     }
 
+    // The synchronous download needs the whole file in hand; async jobs stream it to disk instead
     @Override
     public byte[] generateProductTablePdf(List<Product> products) throws Exception {
-        try (PDDocument document = new PDDocument();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderReport(reportChunks(products), out);
+        return out.toByteArray();
+    }
+
+    private Iterator<List<ReportRow>> reportChunks(List<Product> products) {
+        // Revenue comes from the sales summary instead of each product's sales
+        Map<Integer, BigDecimal> revenueByProduct = revenueByProduct(products);
+        List<ReportRow> rows = products.stream()
+                .filter(product -> product.getIsDeleted() == null || !product.getIsDeleted())
+                .map(product -> new ReportRow(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getQuantity(),
+                        revenueByProduct.getOrDefault(product.getId(), BigDecimal.ZERO)))
+                .toList();
+
+        List<List<ReportRow>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += layoutChunkRows) {
+            chunks.add(rows.subList(from, Math.min(rows.size(), from + layoutChunkRows)));
+        }
+        return chunks.iterator();
+    }
+
+    // Revenue of non-deleted sales per product, one primary-key lookup per product
+    private Map<Integer, BigDecimal> revenueByProduct(List<Product> products) {
+        List<Integer> productIds = products.stream().map(Product::getId).toList();
+        return productSalesSummaryRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductSalesSummary::getProductId, ProductSalesSummary::getRevenue));
+    }
+
+    // One product line of the report, whichever source it was read from
+    private record ReportRow(Integer id, String name, String description, Double price, Integer quantity,
+                             BigDecimal revenue) {
+
+        static ReportRow of(ProductSalesSummary summary) {
+            return new ReportRow(summary.getProductId(), summary.getName(), summary.getDescription(),
+                    summary.getPrice(), summary.getQuantity(), summary.getRevenue());
+        }
+    }
 
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
+    // A row measured, wrapped and formatted, ready to be written; text offsets are relative to each cell
+    private record RowLayout(List<String> cells, List<String> descriptionLines, float[] textOffsets, float height) { }
+
+    /**
+     * Lays out chunks of rows in parallel on the layout pool and writes them into the document in
+     * order on the calling thread, which alone touches PDFBox. At most twice the pool's parallelism
+     * chunks are in flight, so the next chunks are being measured while one is written. Page content
+     * beyond a few MB spills to a scratch file in the export directory and the document is saved
+     * straight to {@code out}; what stays on the heap grows with the page count (PDFBox keeps one
+     * page object per page until the footers are written), not with the rendered content.
+     */
+    private void renderReport(Iterator<List<ReportRow>> chunks, OutputStream out) throws IOException {
+        int window = 2 * layoutPool.getParallelism();
+        Deque<ForkJoinTask<List<RowLayout>>> inFlight = new ArrayDeque<>(window);
+
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(REPORT_MAIN_MEMORY_BYTES).setTempDir(exportDir.toFile());
+        try (PDDocument document = new PDDocument(memory)) {
+            PDPage page = newPage(document);
+            PDPageContentStream contentStream = new PDPageContentStream(document, page);
+            int rowsWritten = 0;
+            try {
+                float currentY = startTable(contentStream, page, true);
+                while (true) {
+                    while (inFlight.size() < window && chunks.hasNext()) {
+                        List<ReportRow> chunk = chunks.next();
+                        inFlight.add(layoutPool.submit(() -> chunk.stream().map(this::layoutRow).toList()));
+                    }
+                    if (inFlight.isEmpty()) {
+                        break;
+                    }
+                    for (RowLayout row : inFlight.poll().join()) {
+                        if (currentY - row.height() < ROW_FLOOR) {
+                            contentStream.close();
+                            page = newPage(document);
+                            contentStream = new PDPageContentStream(document, page);
+                            currentY = startTable(contentStream, page, false);
+                        }
+                        currentY = drawRow(contentStream, row, currentY);
+                        rowsWritten++;
+                    }
+                }
+            } finally {
+                contentStream.close();
+                inFlight.forEach(task -> task.cancel(false));
+            }
 
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                drawProductTable(contentStream, products, page);
+            // Page count is only known now, so footers go on last
+            int pageCount = document.getNumberOfPages();
+            for (int i = 0; i < pageCount; i++) {
+                PDPage footerPage = document.getPage(i);
+                try (PDPageContentStream footer = new PDPageContentStream(document, footerPage,
+                        PDPageContentStream.AppendMode.APPEND, true, true)) {
+                    drawFooter(footer, rowsWritten, footerPage.getMediaBox().getWidth(), i + 1, pageCount);
+                }
             }
 
             document.save(out);
-            return out.toByteArray();
         }
     }
 
-    private void drawProductTable(PDPageContentStream contentStream, List<Product> products, PDPage page) throws IOException {
+    private PDPage newPage(PDDocument document) {
+        PDPage page = new PDPage(PDRectangle.A4);
+        document.addPage(page);
+        return page;
+    }
+
+    // Title on the first page, column headers on every page; returns where the first row goes
+    private float startTable(PDPageContentStream contentStream, PDPage page, boolean firstPage) throws IOException {
         float pageWidth = page.getMediaBox().getWidth();
         float pageHeight = page.getMediaBox().getHeight();
 
-        // A4 page width is approximately 595px, with 50px margins on each side = 495px available
-        // Column definitions - optimized to fit within page margins without clipping
-        String[] headers = {"ID", "Product Name", "Description", "Price", "Qty", "Revenue"};
-        float[] columnWidths = {30, 140, 180, 65, 40, 80}; // Increased Product Name to 140px, reduced Description to 180px
+        float currentY;
+        if (firstPage) {
+            currentY = pageHeight - 100; // Start from top
+            drawTitle(contentStream, "Product Inventory Report", pageWidth, currentY);
+            currentY -= 50;
+        } else {
+            currentY = pageHeight - MARGIN;
+        }
+
+        currentY = drawTableHeader(contentStream, HEADERS, COLUMN_WIDTHS, currentY);
+        contentStream.setFont(PDType1Font.HELVETICA, 9); // Smaller font for better fit
+        return currentY;
+    }
 
-        float currentY = pageHeight - 100; // Start from top
+    // Pure function of the row, run on the layout pool: no PDFBox state, no shared mutable state
+    private RowLayout layoutRow(ReportRow row) {
+        String[] cells = {
+            String.valueOf(row.id()),
+            truncateText(row.name(), 30), // Increased from 20 to 30 characters
+            row.description() != null ? row.description() : "", // Will be wrapped
+            formatCurrency(row.price()),
+            String.valueOf(row.quantity()),
+            formatCurrency(row.revenue())
+        };
 
-        // Draw title
-        drawTitle(contentStream, "Product Inventory Report", pageWidth, currentY);
-        currentY -= 50;
+        // Calculate row height needed for description wrapping
+        List<String> wrappedLines = PdfTextWrapper.wrap(cells[2], COLUMN_WIDTHS[2] - 6, PdfFontMetrics.HELVETICA, 9); // 6px padding
+        float rowHeightNeeded = Math.max(ROW_HEIGHT, wrappedLines.size() * 12); // 12px per line
+
+        float[] textOffsets = new float[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            if (i == 2) {
+                textOffsets[i] = 3;
+            } else if (i == 3 || i == 4 || i == 5) { // Price, Quantity, Revenue - center aligned
+                textOffsets[i] = (COLUMN_WIDTHS[i] - PdfFontMetrics.HELVETICA.stringWidth(cells[i], 9)) / 2;
+            } else { // ID and Name - left aligned
+                textOffsets[i] = 5;
+            }
+        }
+        return new RowLayout(List.of(cells), List.copyOf(wrappedLines), textOffsets, rowHeightNeeded);
+    }
 
-        // Draw table header
-        currentY = drawTableHeader(contentStream, headers, columnWidths, currentY);
+    private float drawRow(PDPageContentStream contentStream, RowLayout row, float currentY) throws IOException {
+        float currentX = MARGIN;
+        float rowHeight = row.height();
 
-        // Draw product rows
-        drawProductRows(contentStream, products, columnWidths, currentY);
+        for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+            // Draw cell border with dynamic height
+            drawCellBorder(contentStream, currentX, currentY - rowHeight, COLUMN_WIDTHS[i], rowHeight);
 
-        // Draw footer
-        drawFooter(contentStream, products.size(), pageWidth);
+            if (i == 2) { // Description column - wrapped lines from the top of the cell
+                float lineY = currentY - 10;
+                for (String line : row.descriptionLines()) {
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(currentX + row.textOffsets()[i], lineY);
+                    contentStream.showText(line);
+                    contentStream.endText();
+                    lineY -= 12; // Move to next line
+                }
+            } else {
+                float textY = currentY - rowHeight / 2 - 2; // Center vertically
+
+                contentStream.beginText();
+                contentStream.newLineAtOffset(currentX + row.textOffsets()[i], textY);
+                contentStream.showText(row.cells().get(i));
+                contentStream.endText();
+            }
+
+            currentX += COLUMN_WIDTHS[i];
+        }
+
+        return currentY - rowHeight;
     }
 
     private void drawTitle(PDPageContentStream contentStream, String title, float pageWidth, float yPosition) throws IOException {
         contentStream.setFont(PDType1Font.HELVETICA_BOLD, 18);
-        float titleWidth = PDType1Font.HELVETICA_BOLD.getStringWidth(title) / 1000 * 18;
+        float titleWidth = PdfFontMetrics.HELVETICA_BOLD.stringWidth(title, 18);
         float titleX = (pageWidth - titleWidth) / 2;
 
         contentStream.beginText();
@@ -192,7 +400,7 @@ public class ProductPdfService implements com.sparksupport.product.application.s
 
             // Draw text (centered in cell)
             String headerText = headers[i];
-            float textWidth = PDType1Font.HELVETICA_BOLD.getStringWidth(headerText) / 1000 * 11;
+            float textWidth = PdfFontMetrics.HELVETICA_BOLD.stringWidth(headerText, 11);
             float textX = currentX + (columnWidths[i] - textWidth) / 2;
             float textY = currentY - HEADER_HEIGHT/2 - 3; // Center vertically
 
@@ -207,103 +415,6 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         return currentY - HEADER_HEIGHT;
     }
 
-    private void drawProductRows(PDPageContentStream contentStream, List<Product> products,
-                                 float[] columnWidths, float startY) throws IOException {
-        float currentY = startY;
-        contentStream.setFont(PDType1Font.HELVETICA, 9); // Smaller font for better fit
-
-        for (Product product : products) {
-            // Skip deleted products
-            if (product.getIsDeleted() != null && product.getIsDeleted()) {
-                continue;
-            }
-
-            float currentX = MARGIN;
-
-            // Calculate actual revenue from sales data
-            BigDecimal actualRevenue = calculateActualRevenue(product);
-
-            // Prepare row data with better text handling
-            String[] rowData = {
-                String.valueOf(product.getId()),
-                truncateText(product.getName(), 30), // Increased from 20 to 30 characters
-                product.getDescription() != null ? product.getDescription() : "", // Will be wrapped
-                formatCurrency(product.getPrice()),
-                String.valueOf(product.getQuantity()),
-                formatCurrency(actualRevenue)
-            };
-
-            // Calculate row height needed for description wrapping
-            String description = rowData[2];
-            List<String> wrappedLines = wrapText(description, columnWidths[2] - 6, PDType1Font.HELVETICA, 9); // 6px padding
-            float rowHeightNeeded = Math.max(ROW_HEIGHT, wrappedLines.size() * 12); // 12px per line
-
-            // Draw each cell with different alignment for different columns
-            for (int i = 0; i < rowData.length; i++) {
-                // Draw cell border with dynamic height
-                drawCellBorder(contentStream, currentX, currentY - rowHeightNeeded, columnWidths[i], rowHeightNeeded);
-
-                // Handle description column with word wrapping
-                if (i == 2) { // Description column - wrap text
-                    float lineY = currentY - 10; // Start from top of cell
-                    for (String line : wrappedLines) {
-                        contentStream.beginText();
-                        contentStream.newLineAtOffset(currentX + 3, lineY);
-                        contentStream.showText(line);
-                        contentStream.endText();
-                        lineY -= 12; // Move to next line
-                    }
-                } else {
-                    // Other columns - single line text
-                    float textX;
-                    if (i == 3 || i == 4 || i == 5) { // Price, Quantity, Revenue - center aligned
-                        float textWidth = PDType1Font.HELVETICA.getStringWidth(rowData[i]) / 1000 * 9;
-                        textX = currentX + (columnWidths[i] - textWidth) / 2;
-                    } else { // ID and Name - left aligned
-                        textX = currentX + 5;
-                    }
-
-                    float textY = currentY - rowHeightNeeded/2 - 2; // Center vertically
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(textX, textY);
-                    contentStream.showText(rowData[i]);
-                    contentStream.endText();
-                }
-
-                currentX += columnWidths[i];
-            }
-
-            currentY -= rowHeightNeeded;
-
-            // Check if we need a new page
-            if (currentY < 100) {
-                // Add new page logic here if needed
-                break; // For now, just stop adding rows
-            }
-        }
-    }
-
-    // New method to calculate actual revenue from sales data
-    private BigDecimal calculateActualRevenue(Product product) {
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-
-        if (product.getSaleList() != null && !product.getSaleList().isEmpty()) {
-            for (Sale sale : product.getSaleList()) {
-                // Skip deleted sales
-                if (sale.getIsDeleted() != null && sale.getIsDeleted()) {
-                    continue;
-                }
-
-                // Calculate revenue from actual sales: salePrice * quantity
-                BigDecimal saleRevenue = sale.getSalePrice().multiply(BigDecimal.valueOf(sale.getQuantity()));
-                totalRevenue = totalRevenue.add(saleRevenue);
-            }
-        }
-
-        return totalRevenue;
-    }
-
     private void drawCellBorder(PDPageContentStream contentStream, float x, float y, float width, float height) throws IOException {
         contentStream.setStrokingColor(Color.BLACK);
         contentStream.setLineWidth(0.5f);
@@ -311,7 +422,8 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         contentStream.stroke();
     }
 
-    private void drawFooter(PDPageContentStream contentStream, int totalProducts, float pageWidth) throws IOException {
+    private void drawFooter(PDPageContentStream contentStream, int totalProducts, float pageWidth,
+                            int pageNumber, int pageCount) throws IOException {
         contentStream.setFont(PDType1Font.HELVETICA, 10);
 
         String footerText = String.format("Total Products: %d | Generated on: %s",
@@ -323,8 +435,8 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         contentStream.endText();
 
         // Page number
-        String pageInfo = "Page 1 of 1";
-        float pageInfoWidth = PDType1Font.HELVETICA.getStringWidth(pageInfo) / 1000 * 10;
+        String pageInfo = "Page " + pageNumber + " of " + pageCount;
+        float pageInfoWidth = PdfFontMetrics.HELVETICA.stringWidth(pageInfo, 10);
 
         contentStream.beginText();
         contentStream.newLineAtOffset(pageWidth - MARGIN - pageInfoWidth, 50);
@@ -338,45 +450,9 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         return text.substring(0, maxLength - 3) + "...";
     }
 
-    // Add new method for text wrapping
-    private List<String> wrapText(String text, float maxWidth, PDType1Font font, int fontSize) throws IOException {
-        List<String> lines = new ArrayList<>();
-        if (text == null || text.trim().isEmpty()) {
-            lines.add("");
-            return lines;
-        }
-
-        String[] words = text.split("\\s+");
-        StringBuilder currentLine = new StringBuilder();
-
-        for (String word : words) {
-            String testLine = currentLine.length() == 0 ? word : currentLine + " " + word;
-            float textWidth = font.getStringWidth(testLine) / 1000 * fontSize;
-
-            if (textWidth <= maxWidth) {
-                currentLine = new StringBuilder(testLine);
-            } else {
-                if (currentLine.length() > 0) {
-                    lines.add(currentLine.toString());
-                    currentLine = new StringBuilder(word);
-                } else {
-                    // Single word is too long, truncate it
-                    lines.add(truncateText(word, (int)(maxWidth / fontSize * 1.5)));
-                    currentLine = new StringBuilder();
-                }
-            }
-        }
-
-        if (currentLine.length() > 0) {
-            lines.add(currentLine.toString());
-        }
-
-        return lines;
-    }
-
     // Helper method to format currency with Rs. prefix
     private String formatCurrency(Number amount) {
-        return "Rs. " + CURRENCY_FORMAT.format(amount);
+        return "Rs. " + CURRENCY_FORMAT.get().format(amount);
     }
 
     @Override
@@ -385,12 +461,9 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         taskManager.setJobStatus(jobId, "IN_PROGRESS");
 
         // Submit the PDF generation job without pre-loading all data
-        executorService.submit(() -> {
+        execute(jobId, () -> {
             try {
-                byte[] pdfBytes = generateProductTablePdfWithBatching();
-                String fileName = "products-report-" + jobId + ".pdf";
-                Path filePath = exportDir.resolve(fileName);
-                Files.write(filePath, pdfBytes);
+                storeCompressed(jobId, this::generateProductTablePdfWithBatching);
                 taskManager.setJobStatus(jobId, "COMPLETED");
                 System.out.println("PDF generation completed successfully for jobId: " + jobId);
             } catch (Exception e) {
@@ -415,185 +488,38 @@ public class ProductPdfService implements com.sparksupport.product.application.s
         return jobId;
     }
 
-    // New method for batch processing
-    @Transactional(readOnly = true)
-    public byte[] generateProductTablePdfWithBatching() throws Exception {
-        try (PDDocument document = new PDDocument();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-
-            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-                drawProductTableWithBatching(contentStream, page);
-            }
-
-            document.save(out);
-            return out.toByteArray();
+    // A full export queue fails the job at once and surfaces as 429, instead of leaving it IN_PROGRESS forever
+    private void execute(String jobId, Runnable job) {
+        try {
+            executorService.execute(job);
+        } catch (RejectedExecutionException e) {
+            taskManager.setJobStatus(jobId, "FAILED");
+            throw new ExportQueueFullException(jobId);
         }
     }
 
-    private void drawProductTableWithBatching(PDPageContentStream contentStream, PDPage page) throws IOException {
-        float pageWidth = page.getMediaBox().getWidth();
-        float pageHeight = page.getMediaBox().getHeight();
-
-        String[] headers = {"ID", "Product Name", "Description", "Price", "Qty", "Revenue"};
-        float[] columnWidths = {30, 140, 180, 65, 40, 80};
+    // Streams the summary in id order by keyset, so each query seeks to the next rows instead of skipping over earlier ones
+    public void generateProductTablePdfWithBatching(OutputStream out) throws IOException {
+        Iterator<List<ReportRow>> chunks = new Iterator<>() {
+            private Slice<ProductSalesSummary> slice = fetch(0);
 
-        float currentY = pageHeight - 100;
-
-        // Draw title and header
-        drawTitle(contentStream, "Product Inventory Report", pageWidth, currentY);
-        currentY -= 50;
-        currentY = drawTableHeader(contentStream, headers, columnWidths, currentY);
-
-        // Process products in batches
-        int batchSize = 50; // Process 50 products at a time
-        int pageNumber = 0;
-        boolean hasMoreProducts = true;
-
-        while (hasMoreProducts && currentY > 100) {
-            // Fetch batch of products
-            List<Product> productBatch = fetchProductBatch(pageNumber, batchSize);
-
-            if (productBatch.isEmpty()) {
-                hasMoreProducts = false;
-                break;
+            private Slice<ProductSalesSummary> fetch(int afterProductId) {
+                return productSalesSummaryRepository.findByIsDeletedFalseAndProductIdGreaterThan(afterProductId,
+                        PageRequest.of(0, layoutChunkRows, Sort.by("productId")));
             }
 
-            // Process each product in the batch
-            for (Product product : productBatch) {
-                if (product.getIsDeleted() != null && product.getIsDeleted()) {
-                    continue;
-                }
-
-                // Calculate revenue for this product (with sales batching)
-                BigDecimal actualRevenue = calculateRevenueWithBatching(product.getId());
-
-                // Draw product row
-                currentY = drawSingleProductRow(contentStream, product, actualRevenue, columnWidths, currentY);
-
-                // Check if we need a new page
-                if (currentY < 100) {
-                    break;
-                }
-            }
-
-            pageNumber++;
-        }
-
-        // Draw footer
-        int totalProducts = getTotalProductCount();
-        drawFooter(contentStream, totalProducts, pageWidth);
-    }
-
-    @Transactional(readOnly = true)
-    public List<Product> fetchProductBatch(int pageNumber, int batchSize) {
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(pageNumber, batchSize);
-        return productService.getAllProducts(pageable).getContent();
-    }
-
-    @Transactional(readOnly = true)
-    public BigDecimal calculateRevenueWithBatching(Integer productId) {
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        int saleBatchSize = 100; // Process 100 sales at a time
-        int salePageNumber = 0;
-        boolean hasMoreSales = true;
-
-        while (hasMoreSales) {
-            // Fetch sales in batches using a custom repository method
-            List<Sale> salesBatch = fetchSalesBatchForProduct(productId, salePageNumber, saleBatchSize);
-
-            if (salesBatch.isEmpty()) {
-                hasMoreSales = false;
-                break;
+            @Override
+            public boolean hasNext() {
+                return slice != null && slice.hasContent();
             }
 
-            // Calculate revenue for this batch
-            for (Sale sale : salesBatch) {
-                if (sale.getIsDeleted() != null && sale.getIsDeleted()) {
-                    continue;
-                }
-                BigDecimal saleRevenue = sale.getSalePrice().multiply(BigDecimal.valueOf(sale.getQuantity()));
-                totalRevenue = totalRevenue.add(saleRevenue);
+            @Override
+            public List<ReportRow> next() {
+                List<ProductSalesSummary> content = slice.getContent();
+                slice = slice.hasNext() ? fetch(content.get(content.size() - 1).getProductId()) : null;
+                return content.stream().map(ReportRow::of).toList();
             }
-
-            salePageNumber++;
-        }
-
-        return totalRevenue;
-    }
-
-    private List<Sale> fetchSalesBatchForProduct(Integer productId, int pageNumber, int batchSize) {
-        try {
-            Pageable pageable = org.springframework.data.domain.PageRequest.of(pageNumber, batchSize);
-            return saleRepository.findByProductIdAndIsDeletedFalse(productId, pageable).getContent();
-        } catch (Exception e) {
-            System.err.println("Error fetching sales batch for product " + productId + ": " + e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
-    private int getTotalProductCount() {
-        // Get total count without loading all products
-        return (int) productService.getAllProducts(org.springframework.data.domain.Pageable.unpaged()).getTotalElements();
-    }
-
-    private float drawSingleProductRow(PDPageContentStream contentStream, Product product,
-                                     BigDecimal actualRevenue, float[] columnWidths, float currentY) throws IOException {
-        contentStream.setFont(PDType1Font.HELVETICA, 9);
-        float currentX = MARGIN;
-
-        String[] rowData = {
-            String.valueOf(product.getId()),
-            truncateText(product.getName(), 30),
-            product.getDescription() != null ? product.getDescription() : "",
-            formatCurrency(product.getPrice()),
-            String.valueOf(product.getQuantity()),
-            formatCurrency(actualRevenue)
         };
-
-        String description = rowData[2];
-        List<String> wrappedLines = wrapText(description, columnWidths[2] - 6, PDType1Font.HELVETICA, 9);
-        float rowHeightNeeded = Math.max(ROW_HEIGHT, wrappedLines.size() * 12);
-
-        // Draw cells
-        for (int i = 0; i < rowData.length; i++) {
-            drawCellBorder(contentStream, currentX, currentY - rowHeightNeeded, columnWidths[i], rowHeightNeeded);
-
-            if (i == 2) { // Description column - wrap text
-                float lineY = currentY - 10;
-                for (String line : wrappedLines) {
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(currentX + 3, lineY);
-                    contentStream.showText(line);
-                    contentStream.endText();
-                    lineY -= 12;
-                }
-            } else {
-                float textX;
-                if (i == 3 || i == 4 || i == 5) {
-                    float textWidth = PDType1Font.HELVETICA.getStringWidth(rowData[i]) / 1000 * 9;
-                    textX = currentX + (columnWidths[i] - textWidth) / 2;
-                } else {
-                    textX = currentX + 5;
-                }
-
-                float textY = currentY - rowHeightNeeded/2 - 2;
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(textX, textY);
-                contentStream.showText(rowData[i]);
-                contentStream.endText();
-            }
-
-            currentX += columnWidths[i];
-        }
-
-        return currentY - rowHeightNeeded;
+        renderReport(chunks, out);
     }
-
-    // Remove the old method that fetches all data at once
-    // @Transactional(readOnly = true)
-    // public List<Product> fetchProductsWithSalesDataInTransaction() { ... }
 }
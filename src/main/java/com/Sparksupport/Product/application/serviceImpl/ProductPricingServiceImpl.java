@@ -0,0 +1,244 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.sparksupport.product.application.config.OutboxWriter;
+import com.sparksupport.product.application.config.ProductCacheEvictor;
+import com.sparksupport.product.application.config.ProductSalesSummaryWriter;
+import com.sparksupport.product.application.dto.BulkPriceUpdateDto;
+import com.sparksupport.product.application.dto.BulkPriceUpdateResult;
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import com.sparksupport.product.application.repository.ProductPriceHistoryRepository;
+import com.sparksupport.product.application.service.ProductPricingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class ProductPricingServiceImpl implements ProductPricingService {
+
+    // Keeps IN lists and batches at a size MySQL plans and ships efficiently
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String ACTIVE_IDS_SQL =
+            "SELECT id FROM product WHERE is_deleted = false AND id IN (:ids)";
+
+    private static final String SET_PRICE_SQL =
+            "UPDATE product SET price = :price, version = version + 1 WHERE id = :id AND is_deleted = false";
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO product_price_history (product_id, price, effective_from, change_source) " +
+            "VALUES (:id, :price, :effectiveFrom, :source)";
+
+    // Percentage rule: history rows are derived from the same expression before the update applies it
+    private static final String SCALE_CONDITION =
+            "is_deleted = false AND ROUND(price * :factor, 2) > 0";
+
+    private static final String SCALE_HISTORY_SQL =
+            "INSERT INTO product_price_history (product_id, price, effective_from, change_source) " +
+            "SELECT id, ROUND(price * :factor, 2), :effectiveFrom, :source FROM product WHERE " + SCALE_CONDITION;
+
+    private static final String SCALE_PRICE_SQL =
+            "UPDATE product SET price = ROUND(price * :factor, 2), version = version + 1 WHERE " + SCALE_CONDITION;
+
+    private static final String ID_FILTER = " AND id IN (:ids)";
+
+    // Products without any history row, i.e. created before prices were recorded, by id range
+    private static final String SEED_HISTORY_SQL =
+            "INSERT INTO product_price_history (product_id, price, effective_from, change_source) " +
+            "SELECT p.id, p.price, :effectiveFrom, :source FROM product p " +
+            "WHERE p.id > :afterId AND p.id <= :toId AND p.price IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM product_price_history h WHERE h.product_id = p.id)";
+
+    private static final String EVENT_REPRICED = "PRODUCT_REPRICED";
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductPriceHistoryRepository priceHistoryRepository;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final OutboxWriter outboxWriter;
+    private final ProductSalesSummaryWriter productSalesSummaryWriter;
+
+    @Autowired
+    public ProductPricingServiceImpl(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     ProductPriceHistoryRepository priceHistoryRepository,
+                                     ProductCacheEvictor productCacheEvictor, OutboxWriter outboxWriter,
+                                     ProductSalesSummaryWriter productSalesSummaryWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.productCacheEvictor = productCacheEvictor;
+        this.outboxWriter = outboxWriter;
+        this.productSalesSummaryWriter = productSalesSummaryWriter;
+    }
+
+    @Override
+    public BulkPriceUpdateResult bulkUpdatePrices(BulkPriceUpdateDto request) {
+        boolean explicit = request.getChanges() != null && !request.getChanges().isEmpty();
+        boolean rule = request.getPercentage() != null;
+        if (explicit == rule) {
+            throw new IllegalArgumentException("Provide either explicit price changes or a percentage rule, not both");
+        }
+        if (rule && !request.isAllProducts() && (request.getProductIds() == null || request.getProductIds().isEmpty())) {
+            throw new IllegalArgumentException("A percentage rule needs productIds or allProducts=true");
+        }
+
+        // Column precision, so the outbox snapshot can find these history rows by equality
+        LocalDateTime effectiveFrom = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        BulkPriceUpdateResult result;
+        try {
+            // The whole repricing is atomic: either every price and history row lands or none does
+            result = transactionTemplate.execute(tx -> {
+                BulkPriceUpdateResult applied = explicit
+                        ? applyExplicitPrices(request.getChanges(), effectiveFrom)
+                        : applyPercentage(request, effectiveFrom);
+                outboxWriter.writeProductSnapshots(EVENT_REPRICED, effectiveFrom, ProductPriceHistory.SOURCE_BULK);
+                productSalesSummaryWriter.syncProducts(effectiveFrom, ProductPriceHistory.SOURCE_BULK);
+                return applied;
+            });
+        } finally {
+            // JDBC writes bypass Hibernate, so cached products and product queries are stale now
+            productCacheEvictor.evictAll();
+        }
+
+        log.info("Bulk price update changed {} products effective {}", result.getUpdated(), effectiveFrom);
+        return result;
+    }
+
+    private BulkPriceUpdateResult applyExplicitPrices(List<BulkPriceUpdateDto.PriceChange> changes, LocalDateTime effectiveFrom) {
+        // Last change wins when a product is listed more than once
+        Map<Integer, Double> prices = new LinkedHashMap<>();
+        for (BulkPriceUpdateDto.PriceChange change : changes) {
+            prices.put(change.getProductId(), change.getPrice());
+        }
+
+        List<Integer> ids = new ArrayList<>(prices.keySet());
+        List<Integer> notFound = new ArrayList<>();
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Set<Integer> active = new HashSet<>(jdbcTemplate.queryForList(ACTIVE_IDS_SQL, Map.of("ids", chunk), Integer.class));
+
+            List<SqlParameterSource> batch = new ArrayList<>(active.size());
+            for (Integer id : chunk) {
+                if (!active.contains(id)) {
+                    notFound.add(id);
+                    continue;
+                }
+                batch.add(new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("price", prices.get(id))
+                        .addValue("effectiveFrom", effectiveFrom)
+                        .addValue("source", ProductPriceHistory.SOURCE_BULK));
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            SqlParameterSource[] args = batch.toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(SET_PRICE_SQL, args);
+            jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, args);
+            updated += batch.size();
+        }
+        return new BulkPriceUpdateResult(updated, notFound, effectiveFrom);
+    }
+
+    private BulkPriceUpdateResult applyPercentage(BulkPriceUpdateDto request, LocalDateTime effectiveFrom) {
+        BigDecimal factor = BigDecimal.ONE.add(request.getPercentage().divide(HUNDRED, MathContext.DECIMAL64));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("factor", factor)
+                .addValue("effectiveFrom", effectiveFrom)
+                .addValue("source", ProductPriceHistory.SOURCE_BULK);
+
+        if (request.isAllProducts()) {
+            // Two set-based statements over the whole table instead of a round trip per product
+            jdbcTemplate.update(SCALE_HISTORY_SQL, params);
+            int updated = jdbcTemplate.update(SCALE_PRICE_SQL, params);
+            return new BulkPriceUpdateResult(updated, List.of(), effectiveFrom);
+        }
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(request.getProductIds()));
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            params.addValue("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+            jdbcTemplate.update(SCALE_HISTORY_SQL + ID_FILTER, params);
+            updated += jdbcTemplate.update(SCALE_PRICE_SQL + ID_FILTER, params);
+        }
+        return new BulkPriceUpdateResult(updated, List.of(), effectiveFrom);
+    }
+
+    /**
+     * Seeds a baseline history row, at the current price and time, for every product that has none,
+     * so the price lookup answers for products created before the history existed. A no-op once
+     * every product has a row; chunked by id so a large catalog is not one long transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedMissingHistory() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM product", Map.of(), Integer.class);
+        if (maxId == null) {
+            return;
+        }
+        LocalDateTime effectiveFrom = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int seeded = 0;
+        for (int afterId = 0; afterId < maxId; afterId += CHUNK_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("afterId", afterId)
+                    .addValue("toId", afterId + CHUNK_SIZE)
+                    .addValue("effectiveFrom", effectiveFrom)
+                    .addValue("source", ProductPriceHistory.SOURCE_BASELINE);
+            seeded += transactionTemplate.execute(tx -> jdbcTemplate.update(SEED_HISTORY_SQL, params));
+        }
+        if (seeded > 0) {
+            log.info("Seeded baseline price history for {} products", seeded);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordPrice(Integer productId, Double price, String source) {
+        priceHistoryRepository.save(ProductPriceHistory.builder()
+                .productId(productId)
+                .price(BigDecimal.valueOf(price))
+                .effectiveFrom(LocalDateTime.now())
+                .changeSource(source)
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> getPriceAt(Integer productId, LocalDateTime at) {
+        return priceHistoryRepository
+                .findFirstByProductIdAndEffectiveFromLessThanEqualOrderByEffectiveFromDescIdDesc(productId, at)
+                .map(ProductPriceHistory::getPrice);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductPriceHistory> getPriceHistory(Integer productId, Pageable pageable) {
+        return priceHistoryRepository.findByProductIdOrderByEffectiveFromDescIdDesc(productId, pageable);
+    }
+}
@@ -1,39 +1,87 @@
 package com.sparksupport.product.application.serviceImpl;
 
+import com.sparksupport.product.application.config.InventoryEngine;
+import com.sparksupport.product.application.config.ProductNameIndex;
+import com.sparksupport.product.application.config.ReservationLedger;
+import com.sparksupport.product.application.config.RetryOnConflict;
+import com.sparksupport.product.application.config.SingleFlight;
 import com.sparksupport.product.application.dto.CreateProductDto;
+import com.sparksupport.product.application.dto.ProductFilter;
 import com.sparksupport.product.application.dto.UpdateProductDto;
+import com.sparksupport.product.application.event.ProductChangedEvent;
 import com.sparksupport.product.application.exception.ProductNotFoundException;
 import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.ProductPriceHistory;
+import com.sparksupport.product.application.model.ProductSalesSummary;
 import com.sparksupport.product.application.repository.ProductRepository;
-import com.sparksupport.product.application.repository.SaleRepository;
+import com.sparksupport.product.application.repository.ProductSalesSummaryRepository;
+import com.sparksupport.product.application.repository.ProductSpecifications;
+import com.sparksupport.product.application.service.ProductPricingService;
 import com.sparksupport.product.application.service.ProductService;
 import com.sparksupport.product.application.util.ProductServiceUtil;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
-    private final SaleRepository saleRepository;
+    private final ProductSalesSummaryRepository productSalesSummaryRepository;
+    private final ProductNameIndex productNameIndex;
+    private final ProductPricingService productPricingService;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, SaleRepository saleRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductSalesSummaryRepository productSalesSummaryRepository,
+                              ProductNameIndex productNameIndex, ProductPricingService productPricingService,
+                              Optional<InventoryEngine> inventoryEngine, ApplicationEventPublisher eventPublisher,
+                              EntityManager entityManager) {
         this.productRepository = productRepository;
-        this.saleRepository = saleRepository;
+        this.productSalesSummaryRepository = productSalesSummaryRepository;
+        this.productNameIndex = productNameIndex;
+        this.productPricingService = productPricingService;
+        this.inventoryEngine = inventoryEngine;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Product> getAllProducts(Pageable pageable) {
         // Only return non-deleted products
         return productRepository.findByIsDeletedFalse(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> getProducts(ProductFilter filter, int pageNumber, int listSize) {
+        Sort sort = ProductSpecifications.indexedSort(filter);
+        return productRepository.findAll(ProductSpecifications.matching(filter), PageRequest.of(pageNumber, listSize, sort));
+    }
+
     @Override
     public Product getProductById(Integer id) {
         // Only return non-deleted products
@@ -43,46 +91,104 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Product> getProductsByIds(Collection<Integer> ids) {
+        // Cached products come from the second-level cache (multiLoad only looks there when a cache mode
+        // is set explicitly); the rest are fetched with one IN query
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                .with(CacheMode.NORMAL)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(new LinkedHashSet<>(ids)))
+                .stream()
+                .filter(product -> product != null && !Boolean.TRUE.equals(product.getIsDeleted()))
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    @Override
+    @Transactional
     public Product addProduct(CreateProductDto createProductDto) {
         // Convert CreateProductDto to Product entity using the utility method
         Product productEntity = ProductServiceUtil.convertToProduct(createProductDto);
 
-        if (productRepository.existsByNameAndIsDeletedFalse(productEntity.getName())) {
+        // Name index short-circuits definite misses; possible hits are confirmed by the DB
+        if (productNameIndex.mightExist(productEntity.getName())
+                && productRepository.existsByNameAndIsDeletedFalse(productEntity.getName())) {
             throw new IllegalArgumentException("Product with name '" + createProductDto.getName() + "' already exists.");
         }
 
-        return productRepository.save(productEntity);
+        Product savedProduct = saveWithUniqueName(productEntity);
+        String name = savedProduct.getName();
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                productNameIndex.add(name);
+            }
+        });
+        productPricingService.recordPrice(savedProduct.getId(), savedProduct.getPrice(), ProductPriceHistory.SOURCE_CREATE);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.CREATED, savedProduct));
+        return savedProduct;
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public Product updateProduct(Integer id, UpdateProductDto updateProductDto) {
         //first find by Id
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
         //Next validation for find by name - optimized to single DB call
+        String previousName = existingProduct.getName();
         if (updateProductDto.getName() != null && !updateProductDto.getName().isBlank()) {
             // Check if the name already exists for other products (excluding current product)
             // This replaces the previous two-step check with a single optimized query
-            if (productRepository.existsByNameAndIsDeletedFalseAndIdNot(updateProductDto.getName().trim(), id)) {
+            String newName = updateProductDto.getName().trim();
+            if (productNameIndex.mightExist(newName)
+                    && productRepository.existsByNameAndIsDeletedFalseAndIdNot(newName, id)) {
                 throw new IllegalArgumentException("Product with name '" + updateProductDto.getName() + "' already exists.");
             }
-            existingProduct.setName(updateProductDto.getName().trim());
+            existingProduct.setName(newName);
         }
+        boolean priceChanged = updateProductDto.getPrice() != null
+                && !updateProductDto.getPrice().equals(existingProduct.getPrice());
         if (updateProductDto.getPrice() != null) {
             existingProduct.setPrice(updateProductDto.getPrice());
         }
         if (updateProductDto.getDescription() != null && !updateProductDto.getDescription().isBlank()) {
             existingProduct.setDescription(updateProductDto.getDescription().trim());
         }
-        if (updateProductDto.getQuantity() != null) {
+        // With the inventory engine the count is owned in memory and written behind, not through this entity
+        boolean engineOwnsStock = updateProductDto.getQuantity() != null && inventoryEngine.isPresent();
+        if (updateProductDto.getQuantity() != null && !engineOwnsStock) {
             existingProduct.setQuantity(updateProductDto.getQuantity());
         }
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = saveWithUniqueName(existingProduct);
+        if (!savedProduct.getName().equals(previousName)) {
+            String name = savedProduct.getName();
+            ReservationLedger.afterCompletion(committed -> {
+                if (committed) {
+                    productNameIndex.remove(previousName);
+                    productNameIndex.add(name);
+                }
+            });
+        }
+        if (priceChanged) {
+            productPricingService.recordPrice(id, savedProduct.getPrice(), ProductPriceHistory.SOURCE_UPDATE);
+        }
+        if (engineOwnsStock) {
+            inventoryEngine.get().adjustTo(id, updateProductDto.getQuantity());
+            // Detached copy, so the new count is returned without being flushed over written-behind deltas
+            savedProduct = new Product(savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription(),
+                    savedProduct.getPrice(), updateProductDto.getQuantity());
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.UPDATED, savedProduct));
+        return savedProduct;
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteProduct(Integer id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
@@ -95,35 +201,49 @@ public class ProductServiceImpl implements ProductService {
         // Soft delete: mark as deleted instead of removing from database
         product.setIsDeleted(true);
         productRepository.save(product);
+        String name = product.getName();
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                productNameIndex.remove(name);
+            }
+        });
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.DELETED, product));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @SingleFlight
     public Double getTotalRevenue() {
-        // Calculate total revenue from all non-deleted sales
-        // Using sale price recorded at time of sale for accurate revenue calculation
-        return saleRepository.findByIsDeletedFalse(org.springframework.data.domain.Pageable.unpaged())
-                .stream()
-                .mapToDouble(sale -> {
-                    BigDecimal salePrice = sale.getSalePrice() != null ? sale.getSalePrice() : BigDecimal.ZERO;
-                    Integer quantity = sale.getQuantity() != null ? sale.getQuantity() : 0;
-                    return salePrice.multiply(BigDecimal.valueOf(quantity)).doubleValue();
-                })
-                .sum();
+        // Total of all non-deleted sales at their recorded sale price, kept per product by the sales summary
+        return productSalesSummaryRepository.sumRevenue().doubleValue();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @SingleFlight
     public Double getRevenueByProduct(Integer productId) {
         // Verify product exists and is not deleted
-        Product existingProduct = productRepository.findByIdAndIsDeletedFalse(productId)
+        productRepository.findByIdAndIsDeletedFalse(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
 
-        // Get revenue only from non-deleted sales for this product
-        return saleRepository.findByProductIdAndIsDeletedFalse(productId).stream()
-                .mapToDouble(sale -> {
-                    BigDecimal salePrice = sale.getSalePrice() != null ? sale.getSalePrice() : BigDecimal.ZERO;
-                    Integer quantity = sale.getQuantity() != null ? sale.getQuantity() : 0;
-                    return salePrice.multiply(BigDecimal.valueOf(quantity)).doubleValue();
-                })
-                .sum();
+        // Revenue from non-deleted sales of this product, from its sales summary row
+        return productSalesSummaryRepository.findById(productId)
+                .map(ProductSalesSummary::getRevenue)
+                .orElse(BigDecimal.ZERO)
+                .doubleValue();
+    }
+
+    // Flush immediately so a name collision missed by the index surfaces here as a unique-key violation;
+    // any other integrity violation is not a duplicate name and propagates as it is
+    private Product saveWithUniqueName(Product product) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && productNameIndex.isUniqueNameIndex(violation.getConstraintName())) {
+                throw new IllegalArgumentException("Product with name '" + product.getName() + "' already exists.");
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,187 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.service.ReportExportService;
+import com.sparksupport.product.application.util.CsvUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports rows straight from a forward-only JDBC result set to the response stream.
+ * No entities or persistence context are involved, so heap use does not grow with row count.
+ */
+@Service
+public class ReportExportServiceImpl implements ReportExportService {
+
+    private static final String[] PRODUCT_COLUMNS = {"id", "name", "description", "price", "quantity"};
+    private static final String[] SALE_COLUMNS = {"id", "productId", "quantity", "saleDate", "salePrice"};
+
+    private static final String PRODUCT_SQL =
+            "SELECT id, name, description, price, quantity FROM product WHERE is_deleted = false ORDER BY id";
+    private static final String SALE_SQL =
+            "SELECT id, product_id, quantity, sale_date, sale_price FROM sale WHERE is_deleted = false";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param fetchSize rows per round trip; Integer.MIN_VALUE (default) makes MySQL Connector/J
+     *                  stream rows one by one instead of buffering the whole result
+     */
+    @Autowired
+    public ReportExportServiceImpl(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        // Read-only so exports are served by the replica when one is configured
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void exportProducts(Format format, OutputStream output) throws IOException {
+        try (RowSink sink = createSink(format, PRODUCT_COLUMNS, output)) {
+            stream(PRODUCT_SQL, List.of(), sink, rs -> new Object[]{
+                    rs.getInt(1),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getDouble(4),
+                    rs.getInt(5)
+            });
+        }
+    }
+
+    @Override
+    public void exportSales(Format format, LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException {
+        StringBuilder sql = new StringBuilder(SALE_SQL);
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND sale_date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND sale_date < ?");
+            args.add(to);
+        }
+        sql.append(" ORDER BY id");
+
+        try (RowSink sink = createSink(format, SALE_COLUMNS, output)) {
+            stream(sql.toString(), args, sink, rs -> new Object[]{
+                    rs.getInt(1),
+                    rs.getInt(2),
+                    rs.getInt(3),
+                    rs.getObject(4, LocalDateTime.class),
+                    rs.getBigDecimal(5)
+            });
+        }
+    }
+
+    private void stream(String sql, List<Object> args, RowSink sink, RowExtractor extractor) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                        try {
+                            sink.row(extractor.extract(rs));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            // Client went away mid-export - surface the I/O error, the transaction is already rolled back
+            throw e.getCause();
+        }
+    }
+
+    private RowSink createSink(Format format, String[] columns, OutputStream output) throws IOException {
+        return format == Format.CSV
+                ? new CsvSink(columns, output)
+                : new NdjsonSink(columns, objectMapper.createGenerator(output));
+    }
+
+    @FunctionalInterface
+    private interface RowExtractor {
+        Object[] extract(ResultSet rs) throws SQLException;
+    }
+
+    private interface RowSink extends Closeable {
+        void row(Object[] values) throws IOException;
+    }
+
+    private static final class NdjsonSink implements RowSink {
+        private final String[] columns;
+        private final JsonGenerator generator;
+
+        private NdjsonSink(String[] columns, JsonGenerator generator) {
+            this.columns = columns;
+            this.generator = generator;
+            // Records are newline-delimited, not separated by Jackson's default root separator
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+
+        private CsvSink(String[] columns, OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(values[i] == null ? "" : CsvUtil.escape(values[i].toString()));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
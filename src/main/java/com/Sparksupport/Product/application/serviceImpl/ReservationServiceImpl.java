@@ -0,0 +1,230 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.sparksupport.product.application.config.InventoryEngine;
+import com.sparksupport.product.application.config.ReservationLedger;
+import com.sparksupport.product.application.config.RetryOnConflict;
+import com.sparksupport.product.application.dto.AvailabilityDto;
+import com.sparksupport.product.application.dto.CreateReservationDto;
+import com.sparksupport.product.application.exception.InsufficientStockException;
+import com.sparksupport.product.application.exception.ProductNotFoundException;
+import com.sparksupport.product.application.exception.ReservationNotFoundException;
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.Sale;
+import com.sparksupport.product.application.model.StockReservation;
+import com.sparksupport.product.application.repository.ProductRepository;
+import com.sparksupport.product.application.repository.StockReservationRepository;
+import com.sparksupport.product.application.service.ReservationService;
+import com.sparksupport.product.application.service.SaleService;
+import com.sparksupport.product.application.util.TimerWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+@Service
+@Slf4j
+public class ReservationServiceImpl implements ReservationService {
+
+    // At the default one-second tick, 4096 slots cover the maximum TTL in a single revolution
+    private static final int WHEEL_SLOTS = 4096;
+    private static final int EXPIRY_BATCH_SIZE = 1000;
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final SaleService saleService;
+    private final ReservationLedger reservationLedger;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final TimerWheel<Long> expiryWheel;
+    private final int defaultTtlSeconds;
+
+    @Autowired
+    public ReservationServiceImpl(StockReservationRepository reservationRepository, ProductRepository productRepository,
+                                  SaleService saleService, ReservationLedger reservationLedger,
+                                  Optional<InventoryEngine> inventoryEngine,
+                                  @Value("${app.reservations.default-ttl-seconds:900}") int defaultTtlSeconds,
+                                  @Value("${app.reservations.tick-ms:1000}") long tickMillis) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.saleService = saleService;
+        this.reservationLedger = reservationLedger;
+        this.inventoryEngine = inventoryEngine;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.expiryWheel = new TimerWheel<>(tickMillis, WHEEL_SLOTS, System.currentTimeMillis());
+    }
+
+    @Override
+    @Transactional
+    public StockReservation createReservation(CreateReservationDto request) {
+        // Served from the second-level cache on the hot path
+        Product product = productRepository.findByIdAndIsDeletedFalse(request.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(request.getProductId()));
+
+        // Hold first, so a sold-out product is rejected without writing anything
+        Object pending = new Object();
+        IntSupplier onHand = inventoryEngine.isPresent()
+                ? inventoryEngine.get().onHand(product.getId())
+                : product::getQuantity;
+        if (!reservationLedger.tryHold(pending, product.getId(), request.getQuantity(), onHand)) {
+            throw new InsufficientStockException(product.getId(),
+                    reservationLedger.available(product.getId(), onHand.getAsInt()), request.getQuantity());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : defaultTtlSeconds;
+        StockReservation saved;
+        try {
+            saved = reservationRepository.save(StockReservation.builder()
+                    .productId(product.getId())
+                    .quantity(request.getQuantity())
+                    .status(StockReservation.Status.ACTIVE)
+                    .createdAt(now)
+                    .expiresAt(now.plusSeconds(ttlSeconds))
+                    .build());
+        } catch (RuntimeException e) {
+            reservationLedger.release(pending);
+            throw e;
+        }
+
+        Long reservationId = saved.getId();
+        reservationLedger.transfer(pending, reservationId);
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                expiryWheel.schedule(reservationId, toEpochMillis(saved.getExpiresAt()));
+            } else {
+                reservationLedger.release(reservationId);
+            }
+        });
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StockReservation getReservation(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Sale confirmReservation(Long reservationId) {
+        StockReservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+
+        // Take the hold over for this transaction so expiry cannot drop it while the sale is written
+        Object sold = new Object();
+        if (!reservationLedger.transfer(reservationId, sold)) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " is no longer active");
+        }
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                reservationLedger.release(sold);
+            } else if (reservationLedger.transfer(sold, reservationId)) {
+                expiryWheel.schedule(reservationId, toEpochMillis(reservation.getExpiresAt()));
+            }
+        });
+
+        Sale sale = new Sale();
+        sale.setQuantity(reservation.getQuantity());
+        sale.setSaleDate(LocalDateTime.now());
+        Sale savedSale = saleService.addReservedSale(reservation.getProductId(), sale);
+
+        if (reservationRepository.settle(reservationId, StockReservation.Status.CONFIRMED,
+                savedSale.getId(), LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " is no longer active");
+        }
+        return savedSale;
+    }
+
+    @Override
+    @Transactional
+    public StockReservation releaseReservation(Long reservationId) {
+        StockReservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+
+        if (reservationRepository.settle(reservationId, StockReservation.Status.RELEASED, null, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " is no longer active");
+        }
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                reservationLedger.release(reservationId);
+            }
+        });
+
+        reservation.setStatus(StockReservation.Status.RELEASED);
+        return reservation;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AvailabilityDto getAvailability(Integer productId) {
+        Product product = productRepository.findByIdAndIsDeletedFalse(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        int onHand = inventoryEngine.map(engine -> engine.stock(productId)).orElse(product.getQuantity());
+        return new AvailabilityDto(productId, onHand, reservationLedger.held(productId),
+                reservationLedger.available(productId, onHand));
+    }
+
+    /**
+     * Advances the expiry wheel and expires every due reservation with one bulk update per batch.
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.tick-ms:1000}")
+    @Transactional
+    public void expireDueReservations() {
+        List<Long> expired = new ArrayList<>();
+        for (Long reservationId : expiryWheel.advance(System.currentTimeMillis())) {
+            // Confirmed or released reservations no longer hold stock and are skipped
+            if (reservationLedger.release(reservationId)) {
+                expired.add(reservationId);
+            }
+        }
+        expireInDatabase(expired);
+        if (!expired.isEmpty()) {
+            log.info("Expired {} stock reservations", expired.size());
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory ledger and expiry wheel from the active reservations in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void restoreActiveReservations() {
+        long now = System.currentTimeMillis();
+        List<Long> expired = new ArrayList<>();
+        int restored = 0;
+        for (StockReservation reservation : reservationRepository.findByStatus(StockReservation.Status.ACTIVE)) {
+            long expiresAt = toEpochMillis(reservation.getExpiresAt());
+            if (expiresAt <= now) {
+                expired.add(reservation.getId());
+                continue;
+            }
+            reservationLedger.restore(reservation.getId(), reservation.getProductId(), reservation.getQuantity());
+            expiryWheel.schedule(reservation.getId(), expiresAt);
+            restored++;
+        }
+        expireInDatabase(expired);
+        log.info("Restored {} active stock reservations, expired {} while down", restored, expired.size());
+    }
+
+    private void expireInDatabase(List<Long> reservationIds) {
+        for (int from = 0; from < reservationIds.size(); from += EXPIRY_BATCH_SIZE) {
+            reservationRepository.expireAll(reservationIds.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, reservationIds.size())));
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,6 +1,11 @@
 package com.sparksupport.product.application.serviceImpl;
 
+import com.sparksupport.product.application.config.InventoryEngine;
+import com.sparksupport.product.application.config.ReservationLedger;
+import com.sparksupport.product.application.config.RetryOnConflict;
 import com.sparksupport.product.application.dto.UpdateSaleDto;
+import com.sparksupport.product.application.event.ProductChangedEvent;
+import com.sparksupport.product.application.event.SaleChangedEvent;
 import com.sparksupport.product.application.exception.InsufficientStockException;
 import com.sparksupport.product.application.exception.InventoryUpdateException;
 import com.sparksupport.product.application.exception.ProductNotFoundException;
@@ -10,56 +15,145 @@ import com.sparksupport.product.application.model.Sale;
 import com.sparksupport.product.application.repository.ProductRepository;
 import com.sparksupport.product.application.repository.SaleRepository;
 import com.sparksupport.product.application.service.SaleService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class SaleServiceImpl implements SaleService {
 
     private final ProductRepository productRepository;
     private final SaleRepository saleRepository;
+    private final ReservationLedger reservationLedger;
+    private final Optional<InventoryEngine> inventoryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Autowired
-    public SaleServiceImpl(ProductRepository productRepository, SaleRepository saleRepository) {
+    public SaleServiceImpl(ProductRepository productRepository, SaleRepository saleRepository,
+                           ReservationLedger reservationLedger, Optional<InventoryEngine> inventoryEngine,
+                           ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.productRepository = productRepository;
         this.saleRepository = saleRepository;
+        this.reservationLedger = reservationLedger;
+        this.inventoryEngine = inventoryEngine;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Sale addSales(Integer productId, Sale sale) {
 
         // Use findByIdAndIsDeletedFalse to ensure we only allow sales for active (non-deleted) products
         Product existingProduct = productRepository.findByIdAndIsDeletedFalse(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
 
-        // Check if we have enough quantity in stock
-        if (existingProduct.getQuantity() < sale.getQuantity()) {
-            throw new InsufficientStockException(productId, existingProduct.getQuantity(), sale.getQuantity());
+        // Check stock not held by reservations and reduce it
+        takeStock(existingProduct, sale.getQuantity());
+
+        return recordSale(existingProduct, sale);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Sale addReservedSale(Integer productId, Sale sale) {
+        Product existingProduct = productRepository.findByIdAndIsDeletedFalse(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+
+        if (inventoryEngine.isPresent()) {
+            inventoryEngine.get().consume(productId, sale.getQuantity());
+        } else {
+            // The hold guarantees availability, but stock may have been corrected downwards since
+            if (existingProduct.getQuantity() < sale.getQuantity()) {
+                throw new InsufficientStockException(productId, existingProduct.getQuantity(), sale.getQuantity());
+            }
+            reduceProductQuantity(existingProduct, sale.getQuantity());
         }
+        publishStockChange(existingProduct);
+
+        return recordSale(existingProduct, sale);
+    }
+
+    private Sale recordSale(Product existingProduct, Sale sale) {
+        // A new entity each attempt: the caller's object must stay untouched for a conflict retry
+        Sale newSale = new Sale();
+        newSale.setQuantity(sale.getQuantity());
+        newSale.setSaleDate(sale.getSaleDate());
 
         // Set the sale price from the product's current price (fetched from database)
-        sale.setSalePrice(BigDecimal.valueOf(existingProduct.getPrice()));
+        newSale.setSalePrice(BigDecimal.valueOf(existingProduct.getPrice()));
+
+        newSale.setProductId(existingProduct.getId());
+        Sale savedSale = saleRepository.save(newSale);
+        eventPublisher.publishEvent(SaleChangedEvent.of(SaleChangedEvent.Type.CREATED, savedSale, savedSale.getQuantity()));
+        return savedSale;
+    }
+
+    // Takes sold stock from the inventory engine when enabled, otherwise from the product row
+    private void takeStock(Product product, int quantity) {
+        Integer productId = product.getId();
+        if (inventoryEngine.isPresent()) {
+            InventoryEngine engine = inventoryEngine.get();
+            if (!engine.trySell(productId, quantity)) {
+                throw new InsufficientStockException(productId,
+                        reservationLedger.available(productId, engine.stock(productId)), quantity);
+            }
+        } else {
+            if (!reservationLedger.holdForTransaction(productId, quantity, product.getQuantity())) {
+                throw new InsufficientStockException(productId,
+                        reservationLedger.available(productId, product.getQuantity()), quantity);
+            }
+            reduceProductQuantity(product, quantity);
+        }
+        publishStockChange(product);
+    }
 
+    private void reduceProductQuantity(Product product, int quantity) {
         // Reduce the quantity from product inventory
-        if (!existingProduct.reduceQuantity(sale.getQuantity())) {
-            throw new InventoryUpdateException(productId, sale.getQuantity());
+        if (!product.reduceQuantity(quantity)) {
+            throw new InventoryUpdateException(product.getId(), quantity);
         }
 
         // Save the updated product with reduced quantity
-        productRepository.save(existingProduct);
+        productRepository.save(product);
+    }
+
+    private void returnStock(Product product, int quantity) {
+        if (inventoryEngine.isPresent()) {
+            inventoryEngine.get().restock(product.getId(), quantity);
+        } else {
+            product.setQuantity(product.getQuantity() + quantity);
+            productRepository.save(product);
+        }
+        publishStockChange(product);
+    }
 
-        sale.setProductId(productId);
-        return saleRepository.save(sale);
+    // Goes to the outbox with the sale, so the change feed carries absolute stock, not just deltas
+    private void publishStockChange(Product product) {
+        int onHand = inventoryEngine.map(engine -> engine.stock(product.getId())).orElse(product.getQuantity());
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(product.getId(), onHand));
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Sale updateSales(Integer saleId, UpdateSaleDto updateSaleDto) {
         // Find the existing sale (only non-deleted sales)
         Sale existingSale = saleRepository.findByIdAndIsDeletedFalse(saleId)
@@ -70,6 +164,8 @@ public class SaleServiceImpl implements SaleService {
             throw new SaleNotFoundException(saleId);
         }
 
+        int previousQuantity = existingSale.getQuantity();
+
         // Partial update - only update fields that are provided
         if (updateSaleDto.getQuantity() != null) {
             // If quantity is being updated, we need to handle inventory adjustment
@@ -83,19 +179,13 @@ public class SaleServiceImpl implements SaleService {
 
             // Adjust product inventory accordingly
             if (quantityDifference > 0) {
-                // Selling more - check if we have enough stock
-                if (product.getQuantity() < quantityDifference) {
-                    throw new InsufficientStockException(product.getId(), product.getQuantity(), quantityDifference);
-                }
-                product.setQuantity(product.getQuantity() - quantityDifference);
+                // Selling more - check if we have enough stock that is not held by reservations
+                takeStock(product, quantityDifference);
             } else if (quantityDifference < 0) {
                 // Selling less - add back to inventory
-                product.setQuantity(product.getQuantity() + Math.abs(quantityDifference));
+                returnStock(product, Math.abs(quantityDifference));
             }
 
-            // Save updated product inventory
-            productRepository.save(product);
-
             // Update sale quantity
             existingSale.setQuantity(newQuantity);
         }
@@ -106,11 +196,15 @@ public class SaleServiceImpl implements SaleService {
 
         // Sale price remains unchanged as it's managed internally
 
-        return saleRepository.save(existingSale);
+        Sale savedSale = saleRepository.save(existingSale);
+        eventPublisher.publishEvent(SaleChangedEvent.of(SaleChangedEvent.Type.UPDATED, savedSale,
+                savedSale.getQuantity() - previousQuantity));
+        return savedSale;
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Boolean deleteSales(Integer saleId) {
         Sale sale = saleRepository.findByIdAndIsDeletedFalse(saleId)
                 .orElseThrow(() -> new SaleNotFoundException(saleId));
@@ -126,8 +220,7 @@ public class SaleServiceImpl implements SaleService {
                 .orElseThrow(() -> new ProductNotFoundException(sale.getProductId()));
 
         // Add the sale quantity back to product inventory
-        product.setQuantity(product.getQuantity() + sale.getQuantity());
-        productRepository.save(product);
+        returnStock(product, sale.getQuantity());
 
         // Option 2: Don't restore inventory (alternative)
         // Use this if "delete sale" means "remove from records but sale actually happened"
@@ -140,11 +233,13 @@ public class SaleServiceImpl implements SaleService {
         // Soft delete: mark as deleted instead of removing from database
         sale.setIsDeleted(true);
         saleRepository.save(sale);
+        eventPublisher.publishEvent(SaleChangedEvent.of(SaleChangedEvent.Type.DELETED, sale, -sale.getQuantity()));
 
         return Boolean.TRUE;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Sale> getSalesByProductId(Integer productId, Pageable pageable) {
         // First verify that the product exists and is not deleted
         productRepository.findByIdAndIsDeletedFalse(productId)
@@ -155,8 +250,22 @@ public class SaleServiceImpl implements SaleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Sale> getAllSales(Pageable pageable) {
         // Return only non-deleted sales
         return saleRepository.findByIsDeletedFalse(pageable);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Sale> getSalesByIds(Collection<Integer> ids) {
+        // One IN query for the whole batch
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Sale.class)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(new LinkedHashSet<>(ids)))
+                .stream()
+                .filter(sale -> sale != null && !Boolean.TRUE.equals(sale.getIsDeleted()))
+                .collect(Collectors.toMap(Sale::getId, Function.identity()));
+    }
 }
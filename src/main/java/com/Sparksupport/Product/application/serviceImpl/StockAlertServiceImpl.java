@@ -0,0 +1,76 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.sparksupport.product.application.config.ReservationLedger;
+import com.sparksupport.product.application.config.StockAlertEngine;
+import com.sparksupport.product.application.dto.StockAlert;
+import com.sparksupport.product.application.exception.ProductNotFoundException;
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.StockAlertThreshold;
+import com.sparksupport.product.application.repository.ProductRepository;
+import com.sparksupport.product.application.repository.StockAlertThresholdRepository;
+import com.sparksupport.product.application.service.StockAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private final StockAlertEngine stockAlertEngine;
+    private final StockAlertThresholdRepository thresholdRepository;
+    private final ProductRepository productRepository;
+
+    @Autowired
+    public StockAlertServiceImpl(StockAlertEngine stockAlertEngine, StockAlertThresholdRepository thresholdRepository,
+                                 ProductRepository productRepository) {
+        this.stockAlertEngine = stockAlertEngine;
+        this.thresholdRepository = thresholdRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public List<StockAlert> getActiveAlerts() {
+        return stockAlertEngine.activeAlerts();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getThreshold(Integer productId) {
+        findProduct(productId);
+        return stockAlertEngine.thresholdFor(productId);
+    }
+
+    @Override
+    @Transactional
+    public int setThreshold(Integer productId, int threshold) {
+        Product product = findProduct(productId);
+        thresholdRepository.save(new StockAlertThreshold(productId, threshold));
+        applyAfterCommit(product, threshold);
+        return threshold;
+    }
+
+    @Override
+    @Transactional
+    public int resetThreshold(Integer productId) {
+        Product product = findProduct(productId);
+        thresholdRepository.findById(productId).ifPresent(thresholdRepository::delete);
+        applyAfterCommit(product, null);
+        return stockAlertEngine.defaultThreshold();
+    }
+
+    private Product findProduct(Integer productId) {
+        return productRepository.findByIdAndIsDeletedFalse(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+    }
+
+    // The engine only sees committed thresholds, and reads the committed stock itself
+    private void applyAfterCommit(Product product, Integer threshold) {
+        ReservationLedger.afterCompletion(committed -> {
+            if (committed) {
+                stockAlertEngine.thresholdChanged(product.getId(), threshold);
+            }
+        });
+    }
+}
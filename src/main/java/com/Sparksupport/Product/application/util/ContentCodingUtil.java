@@ -0,0 +1,93 @@
+package com.sparksupport.product.application.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ContentCodingUtil {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentCodingUtil() {
+    }
+
+    /**
+     * Pick the content coding to use from an Accept-Encoding header: the offered coding with the
+     * highest q-value (earlier offers win ties), or null when none is acceptable and the body
+     * should go out as identity. {@code *} stands for any coding not listed explicitly.
+     */
+    public static String negotiate(String acceptEncoding, String... offered) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        String best = null;
+        double bestQ = 0;
+        for (String coding : offered) {
+            double q = qValue(acceptEncoding, coding);
+            if (q > bestQ) {
+                best = coding;
+                bestQ = q;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Wrap {@code out} in an encoder for the given coding ({@link #GZIP} or {@link #DEFLATE}, the
+     * zlib format HTTP means by "deflate") at the given zlib level; 1 is cheapest on CPU, 9 smallest.
+     */
+    public static OutputStream encoder(String coding, OutputStream out, int level) throws IOException {
+        if (GZIP.equals(coding)) {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        if (DEFLATE.equals(coding)) {
+            Deflater deflater = new Deflater(level);
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + coding);
+    }
+
+    private static double qValue(String acceptEncoding, String coding) {
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String name = parts[0].trim();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(coding)) {
+                return q;
+            }
+            if (name.equals("*")) {
+                wildcard = q;
+            }
+        }
+        return wildcard != null ? wildcard : 0;
+    }
+}
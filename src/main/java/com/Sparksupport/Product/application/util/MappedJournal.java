@@ -0,0 +1,338 @@
+package com.sparksupport.product.application.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of opaque records stored in fixed-size memory-mapped segment files.
+ * <p>
+ * A record is framed as {@code [length:int][crc32:int][payload]} and addressed by its logical offset,
+ * the segment's base offset plus its position in the segment. A record that does not fit closes the
+ * segment with an end marker and goes to the next one, whose base is the previous base plus the
+ * segment size, so offsets only grow. Appends are memory writes; {@link #sync()} forces everything
+ * appended since the previous sync to disk at once (group commit) and completes the matching
+ * {@link #durable(long)} futures. On open, the active segment is scanned and a torn tail discarded.
+ * Appends are serialized; reads may run concurrently and only see records up to {@link #endOffset()}.
+ * Syncs are serialized with each other and with segment deletion, but not with appends.
+ */
+public class MappedJournal implements Closeable {
+
+    public static final int HEADER_SIZE = 8;
+
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, CompletableFuture<Void>> waiters = new ConcurrentSkipListMap<>();
+    private final CRC32 writeCrc = new CRC32();
+    private final Object syncLock = new Object();
+    private Segment active;
+    private volatile long endOffset;
+    private volatile long syncedOffset;
+
+    public MappedJournal(Path directory, String prefix, int segmentSize) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(this::isSegment).sorted().toList()) {
+                    Segment segment = Segment.map(file, baseOffset(file), segmentSize);
+                    segments.put(segment.base, segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+            endOffset = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            endOffset = active.base + recoverEnd(active);
+        }
+        syncedOffset = endOffset;
+    }
+
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    /**
+     * Appends a record and returns its offset. The record is readable at once and durable after the next sync.
+     */
+    public synchronized long append(byte[] payload) {
+        int frameSize = HEADER_SIZE + payload.length;
+        if (frameSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a journal segment");
+        }
+
+        int position = (int) (endOffset - active.base);
+        if (position + frameSize > segmentSize) {
+            if (position + 4 <= segmentSize) {
+                active.buffer.putInt(position, END_OF_SEGMENT);
+            }
+            active = createSegment(active.base + segmentSize);
+            position = 0;
+        }
+
+        writeCrc.reset();
+        writeCrc.update(payload);
+        MappedByteBuffer buffer = active.buffer;
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position + 4, (int) writeCrc.getValue());
+        // Length goes last: a non-zero length marks a complete record to a scan after a crash
+        buffer.putInt(position, payload.length);
+
+        long offset = active.base + position;
+        endOffset = offset + frameSize;
+        return offset;
+    }
+
+    public long startOffset() {
+        return segments.isEmpty() ? endOffset : segments.firstKey();
+    }
+
+    public long endOffset() {
+        return endOffset;
+    }
+
+    public long syncedOffset() {
+        return syncedOffset;
+    }
+
+    /**
+     * Completes once the record at {@code offset} has been forced to disk.
+     */
+    public CompletableFuture<Void> durable(long offset) {
+        if (offset < syncedOffset) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = waiters.computeIfAbsent(offset, o -> new CompletableFuture<>());
+        // A sync may have run between the check and the registration
+        if (offset < syncedOffset) {
+            completeWaiters(syncedOffset);
+        }
+        return future;
+    }
+
+    /**
+     * Forces every record appended since the previous sync to disk and completes their waiters.
+     */
+    public void sync() {
+        synchronized (syncLock) {
+            long target = endOffset;
+            long from = syncedOffset;
+            if (target <= from) {
+                return;
+            }
+            Long firstKey = segments.floorKey(from);
+            for (Segment segment : segments.subMap(firstKey != null ? firstKey : from, true, target, false).values()) {
+                int start = (int) Math.max(0, from - segment.base);
+                int end = (int) Math.min(segmentSize, target - segment.base);
+                if (end > start) {
+                    segment.buffer.force(start, end - start);
+                }
+            }
+            syncedOffset = Math.max(syncedOffset, target);
+            completeWaiters(syncedOffset);
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} records starting at {@code fromOffset}, which must be a record offset
+     * returned earlier (offsets before the oldest retained segment start at that segment).
+     */
+    public List<Entry> read(long fromOffset, int limit) {
+        List<Entry> entries = new ArrayList<>(Math.min(limit, 1024));
+        long offset = Math.max(fromOffset, startOffset());
+        long end = endOffset;
+        CRC32 crc = new CRC32();
+        while (offset < end && entries.size() < limit) {
+            Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+            if (floor == null) {
+                break;
+            }
+            Segment segment = floor.getValue();
+            int position = (int) (offset - segment.base);
+            int length = position + 4 <= segmentSize ? segment.buffer.getInt(position) : END_OF_SEGMENT;
+            if (length == END_OF_SEGMENT || length == 0) {
+                offset = segment.base + segmentSize;
+                continue;
+            }
+            if (length < 0 || position + HEADER_SIZE + length > segmentSize) {
+                throw new IllegalArgumentException("Offset " + offset + " is not a journal record boundary");
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                throw new IllegalArgumentException("Offset " + offset + " is not a journal record boundary");
+            }
+            long next = offset + HEADER_SIZE + length;
+            entries.add(new Entry(offset, next, payload));
+            offset = next;
+        }
+        return entries;
+    }
+
+    /**
+     * Feeds every record from {@code fromOffset} to the current end to {@code consumer}; returns the offset after the last one.
+     */
+    public long replay(long fromOffset, Consumer<Entry> consumer) {
+        long offset = fromOffset;
+        List<Entry> batch;
+        while (!(batch = read(offset, 1024)).isEmpty()) {
+            batch.forEach(consumer);
+            offset = batch.get(batch.size() - 1).nextOffset();
+        }
+        return Math.max(offset, startOffset());
+    }
+
+    /**
+     * The newest record, or null when no retained segment holds one; scans only the newest non-empty segment.
+     */
+    public Entry lastEntry() {
+        long end = endOffset;
+        for (Long base : segments.descendingKeySet()) {
+            if (base >= end) {
+                continue;
+            }
+            Entry last = null;
+            long offset = base;
+            List<Entry> batch;
+            while (offset < end && !(batch = read(offset, 1024)).isEmpty()) {
+                last = batch.get(batch.size() - 1);
+                offset = last.nextOffset();
+            }
+            if (last != null) {
+                return last;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deletes closed segments last written before {@code cutoff}; returns how many were removed.
+     */
+    public synchronized int deleteSegmentsOlderThan(Instant cutoff) {
+        int deleted = 0;
+        // A sync in progress finishes forcing its segments before any of them is removed
+        synchronized (syncLock) {
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment == active) {
+                    break;
+                }
+                try {
+                    FileTime modified = Files.getLastModifiedTime(segment.file);
+                    if (!modified.toInstant().isBefore(cutoff)) {
+                        break;
+                    }
+                    segments.remove(segment.base);
+                    Files.deleteIfExists(segment.file);
+                    deleted++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot delete journal segment " + segment.file, e);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public synchronized void close() {
+        sync();
+        waiters.values().forEach(future -> future.completeExceptionally(new IllegalStateException("Journal closed")));
+        waiters.clear();
+    }
+
+    private void completeWaiters(long synced) {
+        NavigableMap<Long, CompletableFuture<Void>> done = waiters.headMap(synced, false);
+        done.values().forEach(future -> future.complete(null));
+        done.clear();
+    }
+
+    private int recoverEnd(Segment segment) {
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = segment.buffer.getInt(position);
+            if (length == 0 || length == END_OF_SEGMENT) {
+                break;
+            }
+            boolean valid = length > 0 && position + HEADER_SIZE + length <= segmentSize;
+            if (valid) {
+                byte[] payload = new byte[length];
+                segment.buffer.get(position + HEADER_SIZE, payload);
+                crc.reset();
+                crc.update(payload);
+                valid = (int) crc.getValue() == segment.buffer.getInt(position + 4);
+            }
+            if (!valid) {
+                // Torn write: clear it so the next append starts on clean space
+                for (int i = position; i < segmentSize; i++) {
+                    segment.buffer.put(i, (byte) 0);
+                }
+                segment.buffer.force();
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private Segment createSegment(long base) {
+        Path file = directory.resolve(String.format("%s-%020d%s", prefix, base, SUFFIX));
+        try {
+            Segment segment = Segment.map(file, base, segmentSize);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + file, e);
+        }
+    }
+
+    private boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(prefix + "-") && name.endsWith(SUFFIX);
+    }
+
+    private long baseOffset(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length() + 1, name.length() - SUFFIX.length()));
+    }
+
+    private record Segment(Path file, long base, MappedByteBuffer buffer) {
+
+        static Segment map(Path file, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
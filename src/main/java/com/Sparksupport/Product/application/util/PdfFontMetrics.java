@@ -0,0 +1,89 @@
+package com.sparksupport.product.application.util;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Glyph advance widths of a standard PDF font, read once into a table so text can be measured
+ * from any thread. PDFBox fonts cache widths and encodings in plain HashMaps as they are used,
+ * so concurrent {@code getStringWidth} calls on a shared font are not safe; the table gives the
+ * same widths (PDFBox applies no kerning) without touching the font.
+ */
+public final class PdfFontMetrics {
+
+    public static final PdfFontMetrics HELVETICA = new PdfFontMetrics(PDType1Font.HELVETICA);
+    public static final PdfFontMetrics HELVETICA_BOLD = new PdfFontMetrics(PDType1Font.HELVETICA_BOLD);
+
+    private static final int TABLE_SIZE = 256;
+
+    private final PDType1Font font;
+    // Width in 1/1000 em per character below TABLE_SIZE; NaN where the font's encoding has no glyph
+    private final float[] widths = new float[TABLE_SIZE];
+    // The few WinAnsi characters above Latin-1 (euro, dashes, curly quotes, ...)
+    private final Map<Character, Float> otherWidths;
+
+    private PdfFontMetrics(PDType1Font font) {
+        this.font = font;
+        Arrays.fill(widths, Float.NaN);
+        Map<Character, Float> others = new HashMap<>();
+        synchronized (font) {
+            for (char c = 0; c < TABLE_SIZE; c++) {
+                Float width = measure(c);
+                if (width != null) {
+                    widths[c] = width;
+                }
+            }
+            for (String glyphName : WinAnsiEncoding.INSTANCE.getCodeToNameMap().values()) {
+                String unicode = GlyphList.getAdobeGlyphList().toUnicode(glyphName);
+                if (unicode != null && unicode.length() == 1 && unicode.charAt(0) >= TABLE_SIZE) {
+                    Float width = measure(unicode.charAt(0));
+                    if (width != null) {
+                        others.put(unicode.charAt(0), width);
+                    }
+                }
+            }
+        }
+        this.otherWidths = Map.copyOf(others);
+    }
+
+    // Null when not encodable; rejected when measured, as PDFBox would
+    private Float measure(char c) {
+        try {
+            return font.getStringWidth(String.valueOf(c));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    public PDType1Font font() {
+        return font;
+    }
+
+    /** Width of the text in points at the given font size. */
+    public float stringWidth(String text, float fontSize) {
+        float width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += charWidth(text.charAt(i));
+        }
+        return width / 1000 * fontSize;
+    }
+
+    /**
+     * Width of one character in 1/1000 em.
+     *
+     * @throws IllegalArgumentException if the font cannot show the character
+     */
+    public float charWidth(char c) {
+        float width = c < TABLE_SIZE ? widths[c] : otherWidths.getOrDefault(c, Float.NaN);
+        if (Float.isNaN(width)) {
+            throw new IllegalArgumentException(String.format("No glyph for U+%04X in font %s", (int) c, font.getName()));
+        }
+        return width;
+    }
+}
@@ -0,0 +1,97 @@
+package com.sparksupport.product.application.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Word wrapping for PDF table cells. Each word is measured once from the {@link PdfFontMetrics}
+ * table as the scan reaches it and added to the running line width, instead of re-measuring the
+ * whole candidate line for every word; lines are assembled in a per-thread buffer, so the returned
+ * lines are the only allocations. The widths are summed in the same order as measuring each
+ * candidate line from scratch, so the breaks are identical.
+ */
+public final class PdfTextWrapper {
+
+    private static final ThreadLocal<StringBuilder> LINE_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private PdfTextWrapper() {
+    }
+
+    /**
+     * Splits text at whitespace runs into lines no wider than {@code maxWidth} points, joining the
+     * words of a line with single spaces. A word that does not fit on an empty line is cut to a
+     * length estimated from the width and ends with "..."; blank text gives one empty line.
+     *
+     * @throws IllegalArgumentException if the font cannot show a character of the text
+     */
+    public static List<String> wrap(String text, float maxWidth, PdfFontMetrics font, float fontSize) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || isBlank(text)) {
+            lines.add("");
+            return lines;
+        }
+
+        StringBuilder line = LINE_BUFFER.get();
+        line.setLength(0);
+        // Widths in 1/1000 em, scaled to points only for the comparison
+        float lineWidth = 0;
+        float spaceWidth = font.charWidth(' ');
+        int length = text.length();
+        int i = 0;
+
+        while (true) {
+            while (i < length && isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int wordStart = i;
+            float wordWidth = 0;
+            float candidateWidth = line.length() == 0 ? 0 : lineWidth + spaceWidth;
+            for (; i < length && !isWhitespace(text.charAt(i)); i++) {
+                float charWidth = font.charWidth(text.charAt(i));
+                wordWidth += charWidth;
+                candidateWidth += charWidth;
+            }
+
+            if (candidateWidth / 1000 * fontSize <= maxWidth) {
+                if (line.length() > 0) {
+                    line.append(' ');
+                }
+                line.append(text, wordStart, i);
+                lineWidth = candidateWidth;
+            } else if (line.length() > 0) {
+                lines.add(line.toString());
+                line.setLength(0);
+                line.append(text, wordStart, i);
+                lineWidth = wordWidth;
+            } else {
+                // Single word is too long, truncate it
+                int maxLength = (int) (maxWidth / fontSize * 1.5);
+                lines.add(i - wordStart <= maxLength ? text.substring(wordStart, i)
+                        : text.substring(wordStart, wordStart + Math.max(0, maxLength - 3)) + "...");
+            }
+        }
+
+        if (line.length() > 0) {
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    // Same characters as String.trim()
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same characters as the regex \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
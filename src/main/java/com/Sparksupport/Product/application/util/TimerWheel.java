@@ -0,0 +1,73 @@
+package com.sparksupport.product.application.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel: items are bucketed by deadline tick so expiring them costs
+ * O(items due) per tick instead of scanning everything that is pending.
+ * {@link #schedule} may be called from any thread; {@link #advance} from one thread at a time.
+ * Items are never cancelled here - callers skip items that were settled in the meantime.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final Queue<Entry<T>>[] slots;
+    private final int mask;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (tickMillis <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("tickMillis must be > 0 and slotCount a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new Queue[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = slotCount - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        // Never file into a slot the wheel has already passed; the current slot is re-drained on every advance.
+        // Rounded up, so an item never comes due before its deadline
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick);
+        slots[(int) (tick & mask)].add(new Entry<>(item, tick));
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns every item whose deadline tick has passed.
+     */
+    public List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        // After a long pause one full revolution visits every slot
+        long last = Math.min(target, currentTick + slots.length);
+        List<Entry<T>> pending = new ArrayList<>();
+        for (long tick = currentTick; tick <= last; tick++) {
+            Queue<Entry<T>> slot = slots[(int) (tick & mask)];
+            Entry<T> entry;
+            while ((entry = slot.poll()) != null) {
+                if (entry.tick <= target) {
+                    due.add(entry.item);
+                } else {
+                    pending.add(entry);
+                }
+            }
+            // Entries for later revolutions go back once the slot is drained
+            for (Entry<T> later : pending) {
+                slot.add(later);
+            }
+            pending.clear();
+        }
+        currentTick = Math.max(currentTick, target);
+        return due;
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
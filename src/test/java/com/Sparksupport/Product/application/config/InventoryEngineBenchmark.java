@@ -0,0 +1,116 @@
+package com.sparksupport.product.application.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sale and restock throughput of the inventory engine from several threads, against an in-memory
+ * H2 database flushed in the background at the default interval. "hot" sends every sale to one
+ * product, "spread" across {@value #PRODUCTS} products; a single log shard shows the cost of one
+ * shared append point. Run {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class InventoryEngineBenchmark {
+
+    private static final int PRODUCTS = 1024;
+
+    @Param({"hot", "spread"})
+    public String skus;
+
+    @Param({"1", "16"})
+    public int logShards;
+
+    private Path logDirectory;
+    private InventoryEngine engine;
+    private ScheduledExecutorService flusher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:inventory-benchmark-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id INT PRIMARY KEY, quantity INT NOT NULL, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE inventory_checkpoint (id INT PRIMARY KEY, last_seq BIGINT NOT NULL)");
+        List<Object[]> products = new ArrayList<>(PRODUCTS);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            products.add(new Object[]{id, 1_000_000});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (id, quantity) VALUES (?, ?)", products);
+
+        ProductCacheEvictor evictor = new ProductCacheEvictor(null, null, null) {
+            @Override
+            public void evictProducts(Collection<Integer> productIds) {
+            }
+        };
+        logDirectory = Files.createTempDirectory("inventory-benchmark");
+        engine = new InventoryEngine(new ReservationLedger(), jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                evictor, logDirectory.toString(), logShards, 65536);
+        engine.afterSingletonsInstantiated();
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(engine::flush, 200, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        engine.destroy();
+        try (Stream<Path> files = Files.walk(logDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // One sale and one restock per operation, so stock stays level however long the run
+    @Benchmark
+    public boolean sellAndRestock() {
+        int productId = "hot".equals(skus) ? 1 : 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+        boolean sold = engine.trySell(productId, 1);
+        engine.restock(productId, 1);
+        return sold;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,200 @@
+package com.sparksupport.product.application.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryEngineTest {
+
+    private static final int SEGMENT_RECORDS = 8;
+    private static final int SHARDS = 2;
+
+    @TempDir
+    Path logDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private InventoryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:inventory-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id INT PRIMARY KEY, quantity INT NOT NULL, version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE inventory_checkpoint (id INT PRIMARY KEY, last_seq BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO product (id, quantity) VALUES (1, 100), (2, 100)");
+        engine = start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        engine.destroy();
+    }
+
+    @Test
+    void flushedSegmentsAreDeleted() throws IOException {
+        for (int i = 0; i < 10 * SEGMENT_RECORDS; i++) {
+            engine.restock(1 + i % SHARDS, 1);
+        }
+        engine.flush();
+
+        assertThat(quantity(1)).isEqualTo(140);
+        assertThat(quantity(2)).isEqualTo(140);
+        // Each shard keeps only its active segment once everything is checkpointed
+        assertThat(segmentFiles()).isEqualTo(SHARDS);
+    }
+
+    @Test
+    void unflushedRecordsAreReplayedOnRestart() throws IOException {
+        for (int i = 0; i < 3 * SEGMENT_RECORDS; i++) {
+            engine.trySell(1, 1);
+        }
+        engine.flush();
+        for (int i = 0; i < 2 * SEGMENT_RECORDS + 3; i++) {
+            engine.trySell(1, 1);
+            engine.restock(2, 2);
+        }
+
+        // A new engine over the same files, as after a crash before the next flush
+        engine = start();
+        assertThat(quantity(1)).isEqualTo(100 - 5 * SEGMENT_RECORDS - 3);
+        assertThat(quantity(2)).isEqualTo(100 + 2 * (2 * SEGMENT_RECORDS + 3));
+        assertThat(engine.stock(1)).isEqualTo(quantity(1));
+
+        engine.trySell(1, 1);
+        engine.flush();
+        assertThat(quantity(1)).isEqualTo(100 - 5 * SEGMENT_RECORDS - 4);
+    }
+
+    @Test
+    void salesDuringAReloadApplyToTheReloadedCount() throws Exception {
+        engine.trySell(1, 10);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch finishWrite = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> reload = executor.submit(() -> engine.reloadAfter(() -> {
+                writing.countDown();
+                await(finishWrite);
+                jdbcTemplate.update("UPDATE product SET quantity = 500 WHERE id = 1");
+            }));
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Boolean> sale = executor.submit(() -> engine.trySell(1, 5));
+
+            Thread.sleep(200);
+            assertThat(sale.isDone()).isFalse();
+            finishWrite.countDown();
+            reload.get(5, TimeUnit.SECONDS);
+            assertThat(sale.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(engine.stock(1)).isEqualTo(495);
+        engine.flush();
+        assertThat(quantity(1)).isEqualTo(495);
+    }
+
+    @Test
+    void onlyCommittedChangesReachTheLog() throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(tx -> engine.trySell(1, 3));
+        transaction.executeWithoutResult(tx -> {
+            assertThat(engine.trySell(1, 5)).isTrue();
+            assertThat(engine.stock(1)).isEqualTo(92);
+            tx.setRollbackOnly();
+        });
+        assertThat(engine.stock(1)).isEqualTo(97);
+
+        engine = start();
+        assertThat(quantity(1)).isEqualTo(97);
+    }
+
+    @Test
+    void crashBeforeCommitReplaysNothing() throws Exception {
+        CountDownLatch sold = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> sale = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                engine.trySell(1, 5);
+                sold.countDown();
+                await(finish);
+                // The crashed process never completes the transaction
+                tx.setRollbackOnly();
+            }));
+            assertThat(sold.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // A flush while the sale is open, then a new engine over the same files, as after a crash
+            engine.flush();
+            assertThat(quantity(1)).isEqualTo(100);
+            engine = start();
+            assertThat(quantity(1)).isEqualTo(100);
+            assertThat(engine.stock(1)).isEqualTo(100);
+
+            finish.countDown();
+            sale.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void missingProductIsNotCached() {
+        assertThat(engine.trySell(3, 1)).isFalse();
+
+        jdbcTemplate.update("INSERT INTO product (id, quantity) VALUES (3, 10)");
+        assertThat(engine.trySell(3, 1)).isTrue();
+        assertThat(engine.stock(3)).isEqualTo(9);
+    }
+
+    private InventoryEngine start() {
+        ProductCacheEvictor evictor = new ProductCacheEvictor(null, null, null) {
+            @Override
+            public void evictProducts(Collection<Integer> productIds) {
+            }
+        };
+        InventoryEngine started = new InventoryEngine(new ReservationLedger(), jdbcTemplate, transactionManager,
+                evictor, logDirectory.toString(), SHARDS, SEGMENT_RECORDS);
+        started.afterSingletonsInstantiated();
+        return started;
+    }
+
+    private int quantity(int productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(logDirectory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
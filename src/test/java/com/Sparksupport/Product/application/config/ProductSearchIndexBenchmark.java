@@ -0,0 +1,120 @@
+package com.sparksupport.product.application.config;
+
+import com.sparksupport.product.application.dto.ProductDto;
+import com.sparksupport.product.application.dto.ProductSearchPage;
+import com.sparksupport.product.application.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * First-page search latency on {@value #PRODUCTS} products whose words follow a Zipf distribution
+ * over {@value #VOCABULARY} words, so common words and short prefixes match large parts of the
+ * catalog. Queries are a whole word, two words with the second typed as a prefix, and a one-word
+ * prefix of 1 to 3 letters; sampled mode reports the p99 of each. Run {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ProductSearchIndexBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int NAME_WORDS = 3;
+    private static final int DESCRIPTION_WORDS = 12;
+    private static final int QUERIES = 4096;
+
+    @Param({"word", "twoWords", "prefix1", "prefix2", "prefix3"})
+    public String query;
+
+    private final String[] words = new String[VOCABULARY];
+    private final double[] cumulative = new double[VOCABULARY];
+    private final String[] queries = new String[QUERIES];
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(7);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < VOCABULARY; i++) {
+            cumulative[i] /= total;
+        }
+
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.streamActiveProductsForSearch()).thenAnswer(call -> IntStream.rangeClosed(1, PRODUCTS)
+                .mapToObj(id -> new ProductDto(id, text(random, NAME_WORDS), text(random, DESCRIPTION_WORDS), 10.0, 100)));
+        index = new ProductSearchIndex(repository, mock(PlatformTransactionManager.class), Runnable::run, 64, 100_000);
+        index.loadOnStartup();
+
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = switch (query) {
+                case "word" -> word(random) + " ";
+                case "twoWords" -> word(random) + " " + prefix(word(random), 3);
+                default -> prefix(word(random), query.charAt(query.length() - 1) - '0');
+            };
+        }
+    }
+
+    @Benchmark
+    public ProductSearchPage search() {
+        return index.search(queries[ThreadLocalRandom.current().nextInt(QUERIES)], 0, 20);
+    }
+
+    private String text(Random random, int wordCount) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            text.append(i == 0 ? "" : " ").append(word(random));
+        }
+        return text.toString();
+    }
+
+    private String word(Random random) {
+        int i = Arrays.binarySearch(cumulative, random.nextDouble());
+        return words[Math.min(i >= 0 ? i : -i - 1, VOCABULARY - 1)];
+    }
+
+    private static String prefix(String word, int length) {
+        return word.substring(0, Math.min(length, word.length()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.sparksupport.product.application.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaAvailable = new AtomicBoolean(true);
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = embeddedDatabase("primary");
+        DataSource replica = embeddedDatabase("replica");
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaAvailable::get);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        String node = readOnlyTx.execute(status -> currentNode());
+        assertThat(node).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionUsesPrimary() {
+        String node = writeTx.execute(status -> currentNode());
+        assertThat(node).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionFallsBackToPrimaryWhenReplicaUnavailable() {
+        replicaAvailable.set(false);
+        String node = readOnlyTx.execute(status -> currentNode());
+        assertThat(node).isEqualTo("primary");
+    }
+
+    @Test
+    void forcedPrimaryOverridesReadOnlyRouting() {
+        String node = DataSourceRoutingContext.onPrimary(() -> readOnlyTx.execute(status -> currentNode()));
+        assertThat(node).isEqualTo("primary");
+        assertThat(DataSourceRoutingContext.isPrimaryForced()).isFalse();
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource embeddedDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
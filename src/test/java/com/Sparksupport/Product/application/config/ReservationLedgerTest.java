@@ -0,0 +1,110 @@
+package com.sparksupport.product.application.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationLedgerTest {
+
+    private static final int THREADS = 8;
+
+    private final ReservationLedger ledger = new ReservationLedger();
+
+    @Test
+    void concurrentHoldsNeverExceedOnHand() throws Exception {
+        List<Boolean> results = race(200, i -> () -> ledger.tryHold("hold-" + i, 1, 1, 100));
+
+        assertThat(results).filteredOn(Boolean::booleanValue).hasSize(100);
+        assertThat(ledger.held(1)).isEqualTo(100);
+        assertThat(ledger.available(1, 100)).isZero();
+    }
+
+    @Test
+    void aKeyIsHeldOnceHoweverManyThreadsTryIt() throws Exception {
+        List<Boolean> results = race(50, i -> () -> ledger.tryHold("same", 1, 2, 100));
+
+        assertThat(results).filteredOn(Boolean::booleanValue).hasSize(1);
+        assertThat(ledger.held(1)).isEqualTo(2);
+        assertThat(ledger.holdCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReleasesOfOneHoldReleaseItOnce() throws Exception {
+        ledger.tryHold("a", 1, 3, 10);
+        ledger.tryHold("b", 1, 4, 10);
+
+        List<Boolean> results = race(50, i -> () -> ledger.release("a"));
+
+        assertThat(results).filteredOn(Boolean::booleanValue).hasSize(1);
+        assertThat(ledger.held(1)).isEqualTo(4);
+        assertThat(ledger.isHeld("b")).isTrue();
+    }
+
+    @Test
+    void releaseRacingTransferEndsWithExactlyOneOwner() throws Exception {
+        int holds = 500;
+        for (int i = 0; i < holds; i++) {
+            assertThat(ledger.tryHold("reservation-" + i, 1 + i % 3, 1, Integer.MAX_VALUE)).isTrue();
+        }
+
+        // Even tasks release a hold, odd tasks move the same hold to a sale key
+        List<Boolean> results = race(2 * holds, task -> task % 2 == 0
+                ? () -> ledger.release("reservation-" + task / 2)
+                : () -> ledger.transfer("reservation-" + task / 2, "sale-" + task / 2));
+
+        int transferred = 0;
+        for (int i = 0; i < holds; i++) {
+            boolean released = results.get(2 * i);
+            boolean moved = results.get(2 * i + 1);
+            assertThat(released ^ moved).as("hold %d", i).isTrue();
+            assertThat(ledger.isHeld("reservation-" + i)).isFalse();
+            assertThat(ledger.isHeld("sale-" + i)).isEqualTo(moved);
+            transferred += moved ? 1 : 0;
+        }
+        assertThat(ledger.held(1) + ledger.held(2) + ledger.held(3)).isEqualTo(transferred);
+        assertThat(ledger.holdCount()).isEqualTo(transferred);
+
+        for (int i = 0; i < holds; i++) {
+            ledger.release("sale-" + i);
+        }
+        assertThat(ledger.held(1) + ledger.held(2) + ledger.held(3)).isZero();
+        assertThat(ledger.holdCount()).isZero();
+    }
+
+    // Runs every task at once from a shared start and returns the results in task order
+    private static <T> List<T> race(int tasks, TaskFactory<T> factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                Callable<T> task = factory.create(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface TaskFactory<T> {
+        Callable<T> create(int task);
+    }
+}
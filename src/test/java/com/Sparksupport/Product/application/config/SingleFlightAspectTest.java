@@ -0,0 +1,171 @@
+package com.sparksupport.product.application.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightAspectTest {
+
+    private static final int THREADS = 8;
+
+    // Background refreshes wait here until the test runs them
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+    private boolean rejectRefreshes;
+
+    private final Revenue target = new Revenue();
+    private Revenue revenue;
+
+    @BeforeEach
+    void setUp() {
+        SingleFlightAspect aspect = new SingleFlightAspect(new SimpleMeterRegistry(), task -> {
+            if (rejectRefreshes) {
+                throw new RejectedExecutionException("full");
+            }
+            refreshes.add(task);
+        }, 100);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        revenue = factory.getProxy();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        target.gate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                calls.add(executor.submit(() -> revenue.current(1)));
+            }
+            Thread.sleep(200);
+            target.gate.countDown();
+
+            for (Future<Integer> call : calls) {
+                assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(target.calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersShareTheFailureOfTheExecutionTheyJoined() throws Exception {
+        target.gate = new CountDownLatch(1);
+        target.failing = true;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> revenue.current(1));
+            Thread.sleep(100);
+            Future<Integer> joined = executor.submit(() -> revenue.current(1));
+            Thread.sleep(200);
+            target.gate.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("down");
+            assertThatThrownBy(() -> joined.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("down");
+            assertThat(target.calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleResultIsServedWhileOneBackgroundRefreshRuns() {
+        assertThat(revenue.cached(1)).isEqualTo(1);
+
+        // Within the window: the old value at once, and only one refresh however many callers
+        assertThat(revenue.cached(1)).isEqualTo(1);
+        assertThat(revenue.cached(1)).isEqualTo(1);
+        assertThat(refreshes).hasSize(1);
+        assertThat(target.calls).hasValue(1);
+
+        refreshes.poll().run();
+        assertThat(target.calls).hasValue(2);
+        assertThat(revenue.cached(1)).isEqualTo(2);
+        // Different arguments are separate flights with their own results
+        assertThat(revenue.cached(2)).isEqualTo(3);
+    }
+
+    @Test
+    void resultOlderThanTheWindowIsRecomputedInTheForeground() throws InterruptedException {
+        assertThat(revenue.shortWindow(1)).isEqualTo(1);
+        Thread.sleep(100);
+
+        assertThat(revenue.shortWindow(1)).isEqualTo(2);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void failedOrRejectedRefreshKeepsTheStaleResultAndAllowsTheNextRefresh() {
+        assertThat(revenue.cached(1)).isEqualTo(1);
+
+        target.failing = true;
+        assertThat(revenue.cached(1)).isEqualTo(1);
+        refreshes.poll().run();
+        target.failing = false;
+
+        rejectRefreshes = true;
+        assertThat(revenue.cached(1)).isEqualTo(1);
+        assertThat(refreshes).isEmpty();
+
+        rejectRefreshes = false;
+        assertThat(revenue.cached(1)).isEqualTo(1);
+        assertThat(refreshes).hasSize(1);
+        refreshes.poll().run();
+        assertThat(revenue.cached(1)).isEqualTo(3);
+    }
+
+    static class Revenue {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch gate;
+        volatile boolean failing;
+
+        @SingleFlight(staleWhileRevalidate = "0")
+        public int current(int productId) {
+            return compute();
+        }
+
+        @SingleFlight(staleWhileRevalidate = "60000")
+        public int cached(int productId) {
+            return compute();
+        }
+
+        @SingleFlight(staleWhileRevalidate = "50")
+        public int shortWindow(int productId) {
+            return compute();
+        }
+
+        private int compute() {
+            int call = calls.incrementAndGet();
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("down");
+            }
+            return call;
+        }
+    }
+}
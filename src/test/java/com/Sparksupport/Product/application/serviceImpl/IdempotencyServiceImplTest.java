@@ -0,0 +1,205 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksupport.product.application.config.ConflictRetryPolicy;
+import com.sparksupport.product.application.exception.IdempotencyKeyReusedException;
+import com.sparksupport.product.application.model.IdempotencyRecord;
+import com.sparksupport.product.application.repository.IdempotencyRecordRepository;
+import com.sparksupport.product.application.service.IdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+    private static final int THREADS = 8;
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyServiceImpl service;
+    private final AtomicInteger actionRuns = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idempotency-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE idempotency_key (idem_key VARCHAR(200) PRIMARY KEY, "
+                + "request_hash VARCHAR(64) NOT NULL, status_code INT NOT NULL, response_body VARCHAR(4000), "
+                + "created_at TIMESTAMP NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE sale_effect (id INT AUTO_INCREMENT PRIMARY KEY)");
+
+        // Lookups read the same table the service inserts into
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(anyString())).thenAnswer(call -> jdbcTemplate.query(
+                "SELECT * FROM idempotency_key WHERE idem_key = ?",
+                (rs, row) -> new IdempotencyRecord(rs.getString("idem_key"), rs.getString("request_hash"),
+                        rs.getInt("status_code"), rs.getString("response_body"),
+                        rs.getTimestamp("created_at").toLocalDateTime(), rs.getTimestamp("expires_at").toLocalDateTime()),
+                (String) call.getArgument(0)).stream().findFirst());
+
+        service = new IdempotencyServiceImpl(repository, jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(), new ConflictRetryPolicy(new SimpleMeterRegistry(), 1, 1, 1), 24, 100);
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnceAndReplayItsResponse() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<ResponseEntity<?>>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                calls.add(executor.submit(() -> service.execute("key", "sale:1:2", () -> {
+                    await(release);
+                    return createSale();
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            List<ResponseEntity<?>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<?>> call : calls) {
+                responses.add(call.get(5, TimeUnit.SECONDS));
+            }
+            assertThat(actionRuns).hasValue(1);
+            assertThat(count("sale_effect")).isEqualTo(1);
+            assertThat(responses).extracting(response -> (Object) response.getBody()).containsOnly("{\"id\":1}");
+            assertThat(responses).extracting(response -> response.getStatusCode().value()).containsOnly(201);
+            assertThat(responses).filteredOn(response -> !isReplay(response)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replayAfterCompletionDoesNotRunTheActionAgain() {
+        service.execute("key", "sale:1:2", this::createSale);
+        ResponseEntity<?> replay = service.execute("key", "sale:1:2", this::createSale);
+
+        assertThat(actionRuns).hasValue(1);
+        assertThat(isReplay(replay)).isTrue();
+        assertThat(replay.getBody()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        service.execute("key", "sale:1:2", this::createSale);
+
+        assertThatThrownBy(() -> service.execute("key", "sale:1:3", this::createSale))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(actionRuns).hasValue(1);
+    }
+
+    @Test
+    void keyCommittedByAnotherInstanceWinsAndThisAttemptRollsBack() {
+        // The other instance commits the same key while this attempt is running
+        ResponseEntity<?> response = service.execute("key", "sale:1:2", () -> {
+            ResponseEntity<?> created = createSale();
+            insertKeyFromAnotherInstance("anonymous:key", "{\"id\":99}");
+            return created;
+        });
+
+        assertThat(isReplay(response)).isTrue();
+        assertThat(response.getBody()).isEqualTo("{\"id\":99}");
+        assertThat(count("sale_effect")).isZero();
+        assertThat(count("idempotency_key")).isEqualTo(1);
+    }
+
+    @Test
+    void failedAttemptIsSharedWithWaitersAndNotStored() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> service.execute("key", "sale:1:2", () -> {
+                actionRuns.incrementAndGet();
+                await(release);
+                throw new IllegalStateException("boom");
+            }));
+            Thread.sleep(100);
+            Future<ResponseEntity<?>> duplicate = executor.submit(() -> service.execute("key", "sale:1:2", this::createSale));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("boom");
+            assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("boom");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(actionRuns).hasValue(1);
+        assertThat(count("idempotency_key")).isZero();
+
+        // Nothing was stored, so a retry runs the action
+        ResponseEntity<?> retry = service.execute("key", "sale:1:2", this::createSale);
+        assertThat(isReplay(retry)).isFalse();
+        assertThat(actionRuns).hasValue(2);
+    }
+
+    private ResponseEntity<?> createSale() {
+        actionRuns.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO sale_effect DEFAULT VALUES");
+        return ResponseEntity.status(201).body(Map.of("id", 1));
+    }
+
+    private void insertKeyFromAnotherInstance(String scopedKey, String body) {
+        // Another thread, so its own connection and commit outside the attempt's transaction
+        Thread insert = new Thread(() -> jdbcTemplate.update("INSERT INTO idempotency_key VALUES (?, ?, ?, ?, ?, ?)",
+                scopedKey, sha256Of("sale:1:2"), 201, body, Timestamp.valueOf(LocalDateTime.now()),
+                Timestamp.valueOf(LocalDateTime.now().plusHours(1))));
+        insert.start();
+        try {
+            insert.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static boolean isReplay(ResponseEntity<?> response) {
+        return "true".equals(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    private static String sha256Of(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
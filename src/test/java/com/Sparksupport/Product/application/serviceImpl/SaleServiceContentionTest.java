@@ -0,0 +1,102 @@
+package com.sparksupport.product.application.serviceImpl;
+
+import com.sparksupport.product.application.ProductSalesApllication;
+import com.sparksupport.product.application.config.ProductSalesSummaryWriter;
+import com.sparksupport.product.application.dto.UpdateSaleDto;
+import com.sparksupport.product.application.model.Product;
+import com.sparksupport.product.application.model.Sale;
+import com.sparksupport.product.application.repository.ProductRepository;
+import com.sparksupport.product.application.repository.ProductSalesSummaryRepository;
+import com.sparksupport.product.application.repository.SaleRepository;
+import com.sparksupport.product.application.service.SaleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ProductSalesApllication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:contention;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.journal.dir=target/contention-journal",
+        "app.retry.conflict.max-attempts=50"
+})
+class SaleServiceContentionTest {
+
+    private static final int INITIAL_STOCK = 1000;
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 25;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductSalesSummaryRepository productSalesSummaryRepository;
+
+    @Autowired
+    private ProductSalesSummaryWriter productSalesSummaryWriter;
+
+    @Test
+    void concurrentSaleChangesKeepStockConsistent() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .name("Contended").description("Hot item").price(5.0).quantity(INITIAL_STOCK).build());
+        Integer productId = product.getId();
+
+        // Every thread adds sales, grows one of them and deletes another, all against the same product row
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit((Callable<Void>) () -> {
+                List<Integer> saleIds = new ArrayList<>();
+                for (int i = 0; i < SALES_PER_THREAD; i++) {
+                    saleIds.add(saleService.addSales(productId, newSale(2)).getId());
+                }
+                saleService.updateSales(saleIds.get(0), new UpdateSaleDto(5, null));
+                saleService.deleteSales(saleIds.get(1));
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        int sold = saleRepository.findByProductIdAndIsDeletedFalse(productId).stream()
+                .mapToInt(Sale::getQuantity)
+                .sum();
+        assertThat(sold).isEqualTo(THREADS * (SALES_PER_THREAD * 2 + 3 - 2));
+        assertThat(productRepository.findById(productId).orElseThrow().getQuantity()).isEqualTo(INITIAL_STOCK - sold);
+        assertThat(meterRegistry.find("inventory.update.retries.exhausted").counters()).isEmpty();
+        assertThat(productSalesSummaryRepository.findById(productId).orElseThrow().getUnitsSold()).isEqualTo(sold);
+        assertThat(productSalesSummaryWriter.check(false).mismatched()).isEmpty();
+    }
+
+    private static Sale newSale(int quantity) {
+        Sale sale = new Sale();
+        sale.setQuantity(quantity);
+        sale.setSaleDate(LocalDateTime.now().minusMinutes(1));
+        return sale;
+    }
+}
@@ -0,0 +1,166 @@
+package com.sparksupport.product.application.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedJournalTest {
+
+    private static final int SEGMENT_SIZE = 64;
+    private static final int THREADS = 6;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsRollOverSegmentsAndReplayInOrder() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        for (int i = 0; i < 10; i++) {
+            journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(replayAll(journal, 0)).containsExactly("record-0", "record-1", "record-2", "record-3", "record-4",
+                "record-5", "record-6", "record-7", "record-8", "record-9");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void readResumesFromNextOffset() {
+        MappedJournal journal = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        for (int i = 0; i < 5; i++) {
+            journal.append(("r" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<MappedJournal.Entry> first = journal.read(0, 2);
+        List<MappedJournal.Entry> rest = journal.read(first.get(1).nextOffset(), 10);
+
+        assertThat(rest).extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                .containsExactly("r2", "r3", "r4");
+        assertThat(rest.get(2).nextOffset()).isEqualTo(journal.endOffset());
+    }
+
+    @Test
+    void reopenDropsTornTailAndContinuesAfterLastRecord() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, "test", 1024);
+        journal.append("first".getBytes(StandardCharsets.UTF_8));
+        long tornAt = journal.append("second".getBytes(StandardCharsets.UTF_8));
+        journal.close();
+
+        // Simulate a crash mid-write: the length is there but the payload checksum is wrong
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(tornAt + MappedJournal.HEADER_SIZE);
+            file.write('X');
+        }
+
+        MappedJournal reopened = new MappedJournal(directory, "test", 1024);
+        assertThat(reopened.endOffset()).isEqualTo(tornAt);
+        reopened.append("third".getBytes(StandardCharsets.UTF_8));
+        assertThat(replayAll(reopened, 0)).containsExactly("first", "third");
+    }
+
+    @Test
+    void lastEntryIsFoundAcrossSegmentsAndAfterReopen() {
+        MappedJournal journal = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        assertThat(journal.lastEntry()).isNull();
+        for (int i = 0; i < 10; i++) {
+            journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(new String(journal.lastEntry().payload(), StandardCharsets.UTF_8)).isEqualTo("record-9");
+        journal.close();
+
+        MappedJournal reopened = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        assertThat(reopened.lastEntry().nextOffset()).isEqualTo(reopened.endOffset());
+        assertThat(new String(reopened.lastEntry().payload(), StandardCharsets.UTF_8)).isEqualTo("record-9");
+    }
+
+    @Test
+    void syncCompletesDurabilityWaiters() {
+        MappedJournal journal = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        long offset = journal.append("x".getBytes(StandardCharsets.UTF_8));
+
+        var durable = journal.durable(offset);
+        assertThat(durable).isNotDone();
+        journal.sync();
+        assertThat(durable).isDone();
+    }
+
+    @Test
+    void concurrentSyncsNeverMoveTheSyncedOffsetBack() throws Exception {
+        MappedJournal journal = new MappedJournal(directory, "test", SEGMENT_SIZE);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            List<CompletableFuture<Void>> durable = new CopyOnWriteArrayList<>();
+            tasks.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    durable.add(journal.durable(journal.append(("r" + i).getBytes(StandardCharsets.UTF_8))));
+                }
+                running.set(false);
+            }));
+            for (int i = 0; i < THREADS - 3; i++) {
+                tasks.add(executor.submit(() -> {
+                    while (running.get()) {
+                        journal.sync();
+                    }
+                }));
+            }
+            tasks.add(executor.submit(() -> {
+                while (running.get()) {
+                    journal.deleteSegmentsOlderThan(Instant.now().plusSeconds(60));
+                }
+            }));
+            Future<Long> regressions = executor.submit(() -> {
+                long seen = 0;
+                long backwards = 0;
+                while (running.get()) {
+                    long synced = journal.syncedOffset();
+                    backwards += synced < seen ? 1 : 0;
+                    seen = Math.max(seen, synced);
+                }
+                return backwards;
+            });
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(regressions.get(5, TimeUnit.SECONDS)).isZero();
+            journal.sync();
+            assertThat(journal.syncedOffset()).isEqualTo(journal.endOffset());
+            assertThat(durable).allMatch(CompletableFuture::isDone);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> replayAll(MappedJournal journal, long from) {
+        List<String> payloads = new ArrayList<>();
+        journal.replay(from, entry -> payloads.add(new String(entry.payload(), StandardCharsets.UTF_8)));
+        return payloads;
+    }
+}
@@ -0,0 +1,119 @@
+package com.sparksupport.product.application.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps 255-character descriptions (the longest a product accepts) into the report's description
+ * column, against the previous wrapping that re-measured the whole concatenated line per word.
+ * Run {@link #main} from the test classpath; the GC profiler reports allocation per description.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PdfTextWrapperBenchmark {
+
+    private static final int DESCRIPTIONS = 1000;
+    private static final int DESCRIPTION_LENGTH = 255;
+    // Description column of the product report: 180px less padding, 9pt Helvetica
+    private static final float MAX_WIDTH = 174;
+    private static final float FONT_SIZE = 9;
+
+    private final String[] descriptions = new String[DESCRIPTIONS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < DESCRIPTIONS; i++) {
+            StringBuilder description = new StringBuilder(DESCRIPTION_LENGTH);
+            while (description.length() < DESCRIPTION_LENGTH) {
+                int wordLength = 2 + random.nextInt(10);
+                for (int j = 0; j < wordLength && description.length() < DESCRIPTION_LENGTH; j++) {
+                    description.append((char) ((j == 0 && random.nextInt(4) == 0 ? 'A' : 'a') + random.nextInt(26)));
+                }
+                if (description.length() < DESCRIPTION_LENGTH) {
+                    description.append(' ');
+                }
+            }
+            descriptions[i] = description.toString();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DESCRIPTIONS)
+    public void incremental(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(PdfTextWrapper.wrap(description, MAX_WIDTH, PdfFontMetrics.HELVETICA, FONT_SIZE));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DESCRIPTIONS)
+    public void concatenating(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(concatenatingWrap(description, MAX_WIDTH, PdfFontMetrics.HELVETICA, FONT_SIZE));
+        }
+    }
+
+    // The wrapping PdfTextWrapper replaced, kept as the baseline
+    static List<String> concatenatingWrap(String text, float maxWidth, PdfFontMetrics font, float fontSize) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            lines.add("");
+            return lines;
+        }
+
+        String[] words = text.split("\\s+");
+        StringBuilder currentLine = new StringBuilder();
+
+        for (String word : words) {
+            String testLine = currentLine.length() == 0 ? word : currentLine + " " + word;
+            float textWidth = font.stringWidth(testLine, fontSize);
+
+            if (textWidth <= maxWidth) {
+                currentLine = new StringBuilder(testLine);
+            } else if (currentLine.length() > 0) {
+                lines.add(currentLine.toString());
+                currentLine = new StringBuilder(word);
+            } else {
+                int maxLength = (int) (maxWidth / fontSize * 1.5);
+                lines.add(word.length() <= maxLength ? word : word.substring(0, maxLength - 3) + "...");
+                currentLine = new StringBuilder();
+            }
+        }
+
+        if (currentLine.length() > 0) {
+            lines.add(currentLine.toString());
+        }
+        return lines;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PdfTextWrapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.sparksupport.product.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfTextWrapperTest {
+
+    // Description column of the product report: 180px less padding, 9pt Helvetica
+    private static final float MAX_WIDTH = 174;
+    private static final float FONT_SIZE = 9;
+    private static final float[] WIDTHS = {MAX_WIDTH, 60, 20};
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.,!?-";
+    private static final String WHITESPACE = "  \t\n\r\f\u000B";
+    // WinAnsi characters outside ASCII, several of them above Latin-1
+    private static final String WIN_ANSI = "éüñçÆß€—–“”‘’…•‰Œœ™";
+
+    @Test
+    void matchesTheConcatenatingWrapOnWhitespaceRuns() {
+        assertSameLines("  alpha \t\tbeta\n\ngamma  ");
+        assertSameLines("\u000B\f one\r\ntwo   three\t");
+        assertSameLines("word");
+        assertSameLines("the quick brown fox jumps over the lazy dog ".repeat(8));
+    }
+
+    @Test
+    void matchesTheConcatenatingWrapOnOverLongWords() {
+        assertSameLines("x".repeat(29));
+        assertSameLines("x".repeat(30));
+        assertSameLines("W".repeat(60));
+        assertSameLines("short " + "M".repeat(45) + " tail words after it");
+        assertSameLines("Supercalifragilisticexpialidocious-Pneumonoultramicroscopic and more");
+    }
+
+    @Test
+    void matchesTheConcatenatingWrapOnWinAnsiCharacters() {
+        assertSameLines("Café “naïve” crème brûlée — 5€ per œuvre… • ‰ Œ™");
+        assertSameLines("€".repeat(40) + " ‘quoted’ – dash");
+    }
+
+    @Test
+    void blankTextGivesOneEmptyLine() {
+        for (String blank : new String[]{null, "", "   ", "\t\n", "\u0001 \u0002"}) {
+            assertThat(PdfTextWrapper.wrap(blank, MAX_WIDTH, PdfFontMetrics.HELVETICA, FONT_SIZE))
+                    .as("%s", blank).containsExactly("");
+            assertSameLines(blank);
+        }
+    }
+
+    @Test
+    void characterTheFontCannotShowIsRejected() {
+        assertThatThrownBy(() -> PdfTextWrapper.wrap("tea 中", MAX_WIDTH, PdfFontMetrics.HELVETICA, FONT_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesTheConcatenatingWrapOnRandomText() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            assertSameLines(randomText(random));
+        }
+    }
+
+    @Test
+    void widthsMatchPdfBox() throws IOException {
+        String text = "Product report " + LETTERS + WIN_ANSI;
+        for (PdfFontMetrics font : new PdfFontMetrics[]{PdfFontMetrics.HELVETICA, PdfFontMetrics.HELVETICA_BOLD}) {
+            assertThat(font.stringWidth(text, FONT_SIZE)).isEqualTo(font.font().getStringWidth(text) / 1000 * FONT_SIZE);
+        }
+    }
+
+    private static void assertSameLines(String text) {
+        for (float width : WIDTHS) {
+            List<String> expected = PdfTextWrapperBenchmark.concatenatingWrap(text, width, PdfFontMetrics.HELVETICA, FONT_SIZE);
+            assertThat(PdfTextWrapper.wrap(text, width, PdfFontMetrics.HELVETICA, FONT_SIZE))
+                    .as("width %s, text [%s]", width, text)
+                    .isEqualTo(expected);
+        }
+    }
+
+    // Words of mixed length, now and then over-long, separated by runs of mixed whitespace
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextInt(4) == 0) {
+            text.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+        }
+        int words = random.nextInt(40);
+        for (int w = 0; w < words; w++) {
+            int length = random.nextInt(10) == 0 ? 20 + random.nextInt(30) : 1 + random.nextInt(10);
+            for (int c = 0; c < length; c++) {
+                text.append(random.nextInt(8) == 0
+                        ? WIN_ANSI.charAt(random.nextInt(WIN_ANSI.length()))
+                        : LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            int gap = random.nextInt(6) == 0 ? 2 + random.nextInt(3) : 1;
+            for (int g = 0; g < gap; g++) {
+                text.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sparksupport.product.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SLOTS = 8;
+    private static final long SPAN = TICK * SLOTS;
+
+    @Test
+    void itemIsNeverDueBeforeItsDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, SLOTS, 0);
+        wheel.schedule("a", 15);
+
+        assertThat(wheel.advance(10)).isEmpty();
+        assertThat(wheel.advance(19)).isEmpty();
+        assertThat(wheel.advance(20)).containsExactly("a");
+        assertThat(wheel.advance(30)).isEmpty();
+    }
+
+    @Test
+    void itemExactlyOneSpanAwayWaitsAFullRevolution() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, SLOTS, 0);
+        // Same slot as the current tick, one revolution later
+        wheel.schedule("a", SPAN);
+
+        for (long now = TICK; now < SPAN; now += TICK) {
+            assertThat(wheel.advance(now)).as("at %d", now).isEmpty();
+        }
+        assertThat(wheel.advance(SPAN)).containsExactly("a");
+    }
+
+    @Test
+    void itemsPastTheSpanSurviveEveryRevolutionBeforeTheirs() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, SLOTS, 0);
+        wheel.schedule("a", 2 * SPAN + 15);
+        wheel.schedule("b", 3 * SPAN);
+
+        for (long now = TICK; now < 2 * SPAN + 20; now += TICK) {
+            assertThat(wheel.advance(now)).as("at %d", now).isEmpty();
+        }
+        assertThat(wheel.advance(2 * SPAN + 20)).containsExactly("a");
+        for (long now = 2 * SPAN + 30; now < 3 * SPAN; now += TICK) {
+            assertThat(wheel.advance(now)).as("at %d", now).isEmpty();
+        }
+        assertThat(wheel.advance(3 * SPAN)).containsExactly("b");
+    }
+
+    @Test
+    void advancingPastTheSpanAtOnceReturnsEverythingDue() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, SLOTS, 0);
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.schedule("due-" + i, (i + 1) * TICK);
+        }
+        wheel.schedule("later", 10 * SPAN);
+
+        assertThat(wheel.advance(5 * SPAN)).containsExactlyInAnyOrder("due-0", "due-1", "due-2", "due-3",
+                "due-4", "due-5", "due-6", "due-7");
+        assertThat(wheel.advance(10 * SPAN - 1)).isEmpty();
+        assertThat(wheel.advance(10 * SPAN)).containsExactly("later");
+    }
+
+    @Test
+    void itemScheduledInThePastIsDueOnTheNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, SLOTS, 0);
+        wheel.advance(5 * SPAN);
+        wheel.schedule("late", SPAN);
+
+        assertThat(wheel.advance(5 * SPAN)).containsExactly("late");
+    }
+}